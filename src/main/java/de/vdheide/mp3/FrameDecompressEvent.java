@@ -0,0 +1,34 @@
+// FrameDecompressEvent.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+// Copyright (C) 1999 Jens Vonderheide <jens@vdheide.de>
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Library General Public
+// License as published by the Free Software Foundation; either
+// version 2 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Library General Public License for more details.
+//
+// You should have received a copy of the GNU Library General Public
+// License along with this library; if not, write to the
+// Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+// Boston, MA  02111-1307, USA.
+
+package de.vdheide.mp3;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.vdheide.mp3.FrameDecompress")
+@Label("ID3v2 Frame Decompress")
+@Description("Inflate the content of a compressed frame; tag size is the compressed size")
+class FrameDecompressEvent extends TagEvent {
+
+	@Label("Frame ID")
+	String frame;
+}
@@ -0,0 +1,51 @@
+// SynchronizeEvent.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+// Copyright (C) 1999 Jens Vonderheide <jens@vdheide.de>
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Library General Public
+// License as published by the Free Software Foundation; either
+// version 2 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Library General Public License for more details.
+//
+// You should have received a copy of the GNU Library General Public
+// License along with this library; if not, write to the
+// Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+// Boston, MA  02111-1307, USA.
+
+package de.vdheide.mp3;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.vdheide.mp3.Synchronize")
+@Label("Unsynchronization")
+@Description("Undo or apply the unsynchronization scheme on a block of frames")
+class SynchronizeEvent extends TagEvent {
+
+	@Label("Operation")
+	String operation;
+
+	/**
+	 * End the event and commit it if it is recorded
+	 *
+	 * @param operation "synchronize" or "unsynchronize"
+	 * @param in Bytes before the operation
+	 * @param out Bytes after the operation
+	 */
+	void done(String operation, int in, int out) {
+		end();
+		if (shouldCommit()) {
+			this.operation = operation;
+			tagSize = in;
+			bytesCopied = out;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+// TagEvent.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+// Copyright (C) 1999 Jens Vonderheide <jens@vdheide.de>
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Library General Public
+// License as published by the Free Software Foundation; either
+// version 2 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Library General Public License for more details.
+//
+// You should have received a copy of the GNU Library General Public
+// License along with this library; if not, write to the
+// Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+// Boston, MA  02111-1307, USA.
+
+package de.vdheide.mp3;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Registered;
+
+/**
+ * Base of the Flight Recorder events emitted while tags are read and
+ * written.  Each event covers one stage of the work on one file; fields
+ * that do not apply to a stage are left at 0.
+ * <p>
+ * Events cost next to nothing unless a recording is running, e.g. one
+ * started with <code>-XX:StartFlightRecording</code>.  They are not
+ * registered when their class is loaded, which would start up Flight
+ * Recorder and add a few hundred milliseconds to every run, but when the
+ * first event of a class is created while Flight Recorder is running.
+ */
+@Category("ID3")
+@Registered(false)
+public abstract class TagEvent extends Event {
+
+	/** Event classes registered so far */
+	private static final Set<Class<?>> registered = ConcurrentHashMap.newKeySet();
+
+	@Label("Path")
+	public String path;
+
+	@Label("File Size")
+	@DataAmount
+	public long fileSize;
+
+	@Label("Tag Size")
+	@DataAmount
+	public long tagSize;
+
+	@Label("Frame Count")
+	public int frameCount;
+
+	@Label("Bytes Copied")
+	@DataAmount
+	public long bytesCopied;
+
+	protected TagEvent() {
+		if (FlightRecorder.isInitialized() && registered.add(getClass()))
+			FlightRecorder.register(getClass());
+	}
+}
@@ -0,0 +1,507 @@
+// TagLayout.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+// Copyright (C) 1999 Jens Vonderheide <jens@vdheide.de>
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Library General Public
+// License as published by the Free Software Foundation; either
+// version 2 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Library General Public License for more details.
+//
+// You should have received a copy of the GNU Library General Public
+// License along with this library; if not, write to the
+// Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+// Boston, MA  02111-1307, USA.
+
+package de.vdheide.mp3;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import pri.nightmare.utils.Throttle;
+
+/**
+ * Describes the tags of a file without parsing them: version, flags and
+ * size of the ID3v2 tag, the headers of its frames and whether an ID3v1
+ * tag is present.
+ * <p>
+ * Only the ID3v2 header, the frame headers and the text encoding byte of
+ * text frames are read, plus three bytes at the position of the ID3v1 tag.
+ * Frame contents are skipped, so a large picture costs no more than a
+ * small title.  Only a tag unsynchronized as a whole (ID3v2.2 and 2.3)
+ * must be read completely, since its frame headers cannot be found
+ * otherwise.  No strings are decoded.
+ */
+public class TagLayout {
+
+	/********** Constructors **********/
+
+	/**
+	 * Read the layout of <code>file</code>'s tags
+	 *
+	 * @param file File to read
+	 * @exception IOException If an I/O error occurs
+	 */
+	public TagLayout(File file) throws IOException {
+		this(file, Throttle.NONE);
+	}
+
+	/**
+	 * Read the layout of <code>file</code>'s tags, no faster than
+	 * <code>throttle</code> allows
+	 *
+	 * @param file File to read
+	 * @param throttle Limits bytes and file operations
+	 * @exception IOException If an I/O error occurs
+	 */
+	public TagLayout(File file, Throttle throttle) throws IOException {
+		this.throttle = throttle;
+		throttle.operation();
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			file_length = in.length();
+			readV2(in);
+			readV1(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/********** Public methods **********/
+
+	/**
+	 * @return Major version of the ID3v2 tag (2, 3 or 4), 0 if there is none
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	public boolean hasV1() {
+		return has_v1;
+	}
+
+	/**
+	 * @return Size of the ID3v2 tag without its header, as stated in the header
+	 */
+	public long getTagSize() {
+		return tag_size;
+	}
+
+	public int getFrameCount() {
+		return frame_count;
+	}
+
+	/**
+	 * @return Number of text frames (T***)
+	 */
+	public int getTextFrames() {
+		return text_frames;
+	}
+
+	/**
+	 * @return Number of text frames in ISO-8859-1, i.e. not Unicode.  These
+	 *         are the frames that usually hold text in a local charset.
+	 */
+	public int getNonUnicodeFrames() {
+		return non_unicode_ids.size();
+	}
+
+	/**
+	 * @return IDs of the text frames in ISO-8859-1, in the order of the tag
+	 */
+	public List<String> getNonUnicodeIDs() {
+		return non_unicode_ids;
+	}
+
+	public int getCompressedFrames() {
+		return compressed_frames;
+	}
+
+	public int getEncryptedFrames() {
+		return encrypted_frames;
+	}
+
+	/**
+	 * @return true if the tag or one of its frames uses unsynchronization
+	 */
+	public boolean isUnsynchronized() {
+		return unsynchronized;
+	}
+
+	/**
+	 * @return Bytes of padding after the last frame
+	 */
+	public long getPadding() {
+		return padding;
+	}
+
+	/**
+	 * @return true if the frames could not be read to the end of the tag, or
+	 *         the whole tag is compressed (ID3v2.2)
+	 */
+	public boolean isDamaged() {
+		return damaged;
+	}
+
+	/**
+	 * @return Flags byte of the ID3v2 header
+	 */
+	public int getFlags() {
+		return flags;
+	}
+
+	/**
+	 * @return Frames of the ID3v2 tag, in the order of the tag
+	 */
+	public List<Frame> getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return Position right after the last frame, where padding starts.
+	 *         Like the positions of the frames, this is a position in the
+	 *         file unless the tag is unsynchronized as a whole.
+	 */
+	public long getFramesEnd() {
+		return frames_end;
+	}
+
+	public long getFileLength() {
+		return file_length;
+	}
+
+	/**
+	 * @return Bytes read from the file
+	 */
+	public long getBytesRead() {
+		return bytes_read;
+	}
+
+	/**
+	 * Position and header of a frame
+	 */
+	public static class Frame {
+
+		Frame(String id, long offset, int header_length, long size, int flags,
+				boolean compressed, boolean encrypted, int skip) {
+			this.id = id;
+			this.offset = offset;
+			this.header_length = header_length;
+			this.size = size;
+			this.flags = flags;
+			this.compressed = compressed;
+			this.encrypted = encrypted;
+			this.skip = skip;
+		}
+
+		public String getID() {
+			return id;
+		}
+
+		/**
+		 * @return Position of the frame header
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * @return Length of the frame header: 6 for ID3v2.2, 10 otherwise
+		 */
+		public int getHeaderLength() {
+			return header_length;
+		}
+
+		/**
+		 * @return Size of the frame without its header, as stated in the header
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return Both flag bytes of the frame header, 0 for ID3v2.2
+		 */
+		public int getFlags() {
+			return flags;
+		}
+
+		public boolean isCompressed() {
+			return compressed;
+		}
+
+		public boolean isEncrypted() {
+			return encrypted;
+		}
+
+		/**
+		 * @return Bytes between header and content: group identifier and
+		 *         data length indicator
+		 */
+		public int getSkip() {
+			return skip;
+		}
+
+		private String id;
+		private long offset;
+		private int header_length;
+		private long size;
+		private int flags;
+		private boolean compressed;
+		private boolean encrypted;
+		private int skip;
+	}
+
+	/********** Private variables **********/
+
+	/** Bytes read from the file at once */
+	private static final int WINDOW = 8192;
+
+	private Throttle throttle;
+	private long file_length = 0;
+	private long bytes_read = 0;
+
+	private int version = 0; // major version of ID3v2 tag, 0 if none
+	private boolean has_v1 = false;
+	private long tag_size = 0; // size of ID3v2 tag without header
+	private int frame_count = 0;
+	private int text_frames = 0;
+	private List<String> non_unicode_ids = new ArrayList<String>(); // IDs of ISO-8859-1 text frames
+	private int compressed_frames = 0;
+	private int encrypted_frames = 0;
+	private boolean unsynchronized = false;
+	private long padding = 0;
+	private boolean damaged = false;
+	private int flags = 0; // flags of ID3v2 header
+	private List<Frame> frames = new ArrayList<Frame>(); // Frame of every frame read
+	private long frames_end = 10; // position after last frame
+
+	// part of the file currently held in memory
+	private byte[] window = new byte[WINDOW];
+	private long window_start = 0; // position of window[0] in the file
+	private int window_length = 0; // valid bytes in window
+	private boolean window_complete = false; // window holds the whole tag
+	private long limit = 10; // end of the region being read, no read goes beyond it
+
+	/********** Private methods **********/
+
+	private void readV2(RandomAccessFile in) throws IOException {
+		if (!ensure(in, 0, 10)) {
+			return;
+		}
+		byte[] head = new byte[10];
+		System.arraycopy(window, 0, head, 0, 10);
+		if (!ID3v2Header.isHeader(head)) {
+			return;
+		}
+		version = head[3];
+		flags = head[5] & 0xff;
+		tag_size = synchsafe(0, 6);
+		long end = Math.min(10 + tag_size, file_length);
+		limit = end;
+
+		if ((flags & 0x80) != 0) {
+			unsynchronized = true;
+			if (version < 4) {
+				readSynchronized(in, end);
+				end = window_start + window_length;
+			}
+		}
+
+		long pos = 10;
+		if ((flags & 0x40) != 0) {
+			if (version == 2) {
+				// ID3v2.2: the whole tag is compressed
+				compressed_frames++;
+				damaged = true;
+				return;
+			}
+			// skip extended header
+			if (!ensure(in, pos, 4)) {
+				damaged = true;
+				return;
+			}
+			pos += version == 3 ? 4 + integer(pos, 4) : synchsafe(pos, 0);
+		}
+
+		int header_length = version == 2 ? 6 : 10;
+		while (pos + header_length <= end) {
+			if (!ensure(in, pos, header_length)) {
+				damaged = true;
+				return;
+			}
+			if (byteAt(pos) == 0) {
+				// padding
+				break;
+			}
+			if (!isFrameId(pos, header_length == 6 ? 3 : 4)) {
+				damaged = true;
+				return;
+			}
+			long size;
+			int status = 0; // second flag byte
+			if (version == 2) {
+				size = integer(pos + 3, 3);
+			} else if (version == 3) {
+				size = integer(pos + 4, 4);
+				status = byteAt(pos + 9) & 0xff;
+			} else {
+				size = synchsafe(pos, 4);
+				status = byteAt(pos + 9) & 0xff;
+			}
+			frame_count++;
+
+			boolean compressed, encrypted;
+			int skip; // bytes between header and content
+			if (version == 2) {
+				compressed = encrypted = false;
+				skip = 0;
+			} else if (version == 3) {
+				compressed = (status & 0x80) != 0;
+				encrypted = (status & 0x40) != 0;
+				skip = (status & 0x20) != 0 ? 1 : 0;
+			} else {
+				compressed = (status & 0x08) != 0;
+				encrypted = (status & 0x04) != 0;
+				skip = ((status & 0x40) != 0 ? 1 : 0) + ((status & 0x01) != 0 ? 4 : 0);
+				if ((status & 0x02) != 0) {
+					unsynchronized = true;
+				}
+			}
+			frames.add(new Frame(id(pos, header_length == 6 ? 3 : 4), pos,
+					header_length, size, version == 2 ? 0 : (int) integer(pos + 8, 2),
+					compressed, encrypted, skip));
+			if (compressed) {
+				compressed_frames++;
+			}
+			if (encrypted) {
+				encrypted_frames++;
+			}
+
+			if (byteAt(pos) == 'T') {
+				text_frames++;
+				long content = pos + header_length + skip;
+				if (!compressed && !encrypted && size > skip + 1
+					&& ensure(in, content, 1) && byteAt(content) == 0) {
+					non_unicode_ids.add(id(pos, header_length == 6 ? 3 : 4));
+				}
+			}
+			pos += header_length + size;
+		}
+
+		if (pos > end) {
+			// last frame runs past the end of the tag
+			damaged = true;
+		} else {
+			padding = end - pos;
+			frames_end = pos;
+		}
+	}
+
+	private void readV1(RandomAccessFile in) throws IOException {
+		if (file_length < 129) {
+			return;
+		}
+		limit = file_length;
+		if (ensure(in, file_length - 128, 3)) {
+			long pos = file_length - 128;
+			has_v1 = byteAt(pos) == 'T' && byteAt(pos + 1) == 'A' && byteAt(pos + 2) == 'G';
+		}
+	}
+
+	/**
+	 * Read the whole tag up to <code>end</code> and undo unsynchronization
+	 */
+	private void readSynchronized(RandomAccessFile in, long end) throws IOException {
+		byte[] tag = new byte[(int) (end - 10)];
+		in.seek(10);
+		in.readFully(tag);
+		bytes_read += tag.length;
+		throttle.bytes(tag.length);
+		byte[] synched = ID3v2.synchronize(tag);
+		window = synched != null ? synched : tag;
+		window_start = 10;
+		window_length = window.length;
+		window_complete = true;
+	}
+
+	/**
+	 * Make sure the bytes from <code>pos</code> to <code>pos+len</code> are
+	 * in the window
+	 *
+	 * @return false if they are beyond the end of the file or tag
+	 */
+	private boolean ensure(RandomAccessFile in, long pos, int len) throws IOException {
+		if (pos >= window_start && pos + len <= window_start + window_length) {
+			return true;
+		}
+		if (window_complete && pos < file_length - 128) {
+			return false;
+		}
+		if (pos + len > file_length) {
+			return false;
+		}
+		if (window_complete) {
+			// leave the synchronized tag for the ID3v1 tag
+			window = new byte[WINDOW];
+			window_complete = false;
+		}
+		in.seek(pos);
+		int n = (int) Math.min(window.length, Math.max(limit, pos + len) - pos);
+		in.readFully(window, 0, n);
+		bytes_read += n;
+		throttle.bytes(n);
+		window_start = pos;
+		window_length = n;
+		return true;
+	}
+
+	private byte byteAt(long pos) {
+		return window[(int) (pos - window_start)];
+	}
+
+	private long integer(long pos, int len) {
+		long value = 0;
+		for (int i = 0; i < len; i++) {
+			value = (value << 8) | (byteAt(pos + i) & 0xff);
+		}
+		return value;
+	}
+
+	/**
+	 * @return Synchsafe integer of four bytes at <code>pos+off</code>
+	 */
+	private long synchsafe(long pos, int off) {
+		long value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = (value << 7) | (byteAt(pos + off + i) & 0x7f);
+		}
+		return value;
+	}
+
+	private String id(long pos, int len) {
+		char[] id = new char[len];
+		for (int i = 0; i < len; i++) {
+			id[i] = (char) byteAt(pos + i);
+		}
+		return new String(id);
+	}
+
+	private boolean isFrameId(long pos, int len) {
+		for (int i = 0; i < len; i++) {
+			byte b = byteAt(pos + i);
+			if (!(b >= 'A' && b <= 'Z') && !(b >= '0' && b <= '9')) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,360 @@
+// TagRewriter.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+// Copyright (C) 1999 Jens Vonderheide <jens@vdheide.de>
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Library General Public
+// License as published by the Free Software Foundation; either
+// version 2 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Library General Public License for more details.
+//
+// You should have received a copy of the GNU Library General Public
+// License along with this library; if not, write to the
+// Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+// Boston, MA  02111-1307, USA.
+
+package de.vdheide.mp3;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import pri.nightmare.utils.Throttle;
+
+/**
+ * Replaces single frames of an ID3v2 tag without holding the tag in
+ * memory.
+ * <p>
+ * <code>ID3v2</code> reads the whole tag and copies every frame once more
+ * when it parses and writes it, which takes several times the size of a
+ * tag carrying a large picture.  This class works from a
+ * <code>TagLayout</code> instead: only the frames that are replaced are
+ * held in memory, all other frames are copied from the old file to the new
+ * one through a fixed buffer, as is the audio data.
+ * <p>
+ * Only tags without extended header and not unsynchronized as a whole can
+ * be rewritten, and only frames without compression, encryption, grouping
+ * or data length indicator can be replaced.
+ */
+public class TagRewriter {
+
+	/********** Constructors **********/
+
+	/**
+	 * @param file File to rewrite
+	 * @param layout Layout of <code>file</code>'s tags
+	 * @param throttle Limits bytes and file operations
+	 * @exception IOException If the tag cannot be rewritten this way
+	 */
+	public TagRewriter(File file, TagLayout layout, Throttle throttle) throws IOException {
+		if (layout.getVersion() < 2 || layout.getVersion() > 4) {
+			throw new IOException("No ID3v2.2 to 2.4 tag to rewrite in "+file);
+		}
+		if (layout.isDamaged()) {
+			throw new IOException("Cannot rewrite damaged tag of "+file);
+		}
+		if ((layout.getFlags() & 0xc0) != 0) {
+			throw new IOException("Cannot rewrite tag of "+file
+				+" without reading it: extended header or unsynchronization");
+		}
+		this.file = file;
+		this.layout = layout;
+		this.throttle = throttle;
+	}
+
+	/********** Public methods **********/
+
+	/**
+	 * @return true if <code>frame</code> is stored plainly, so that it can
+	 *         be read and replaced
+	 */
+	public boolean isReplaceable(TagLayout.Frame frame) {
+		return (frame.getFlags() & 0xff) == 0 && frame.getSize() <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Read the content of a frame
+	 *
+	 * @param frame Frame of the layout
+	 * @return Content without frame header
+	 * @exception IOException If an I/O error occurs
+	 */
+	public byte[] read(TagLayout.Frame frame) throws IOException {
+		byte[] content = new byte[(int) frame.getSize()];
+		throttle.operation();
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			in.seek(frame.getOffset() + frame.getHeaderLength());
+			in.readFully(content);
+			bytes_read += content.length;
+			throttle.bytes(content.length);
+		} finally {
+			in.close();
+		}
+		return content;
+	}
+
+	/**
+	 * Replace the content of a frame when the file is written
+	 *
+	 * @param frame Frame of the layout
+	 * @param content New content without frame header
+	 */
+	public void replace(TagLayout.Frame frame, byte[] content) {
+		replaced.put(frame, content);
+	}
+
+	/**
+	 * @return true if a frame was replaced
+	 */
+	public boolean isChanged() {
+		return !replaced.isEmpty();
+	}
+
+	/**
+	 * Write the tag with the frames replaced to a temporary file, together
+	 * with everything that follows the tag, and rename it to the original
+	 * file.  The padding of the tag is kept.
+	 *
+	 * @exception IOException If an I/O error occurs
+	 */
+	public void write() throws IOException {
+		int version = layout.getVersion();
+		long tag_size = layout.getFramesEnd() - 10 + layout.getPadding();
+		for (Iterator<Map.Entry<TagLayout.Frame, byte[]>> iter = replaced.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<TagLayout.Frame, byte[]> e = iter.next();
+			tag_size += e.getValue().length - e.getKey().getSize();
+		}
+		if (tag_size >= 1 << 28) {
+			throw new IOException("Tag of "+file+" too large: "+tag_size+" bytes");
+		}
+
+		throttle.operation();
+		File temp = pri.nightmare.utils.File.getTempFile("ID3", file);
+		InputStream in = null;
+		OutputStream out = null;
+		try {
+			throttle.operation();
+			in = new FileInputStream(file);
+			throttle.operation();
+			out = new FileOutputStream(temp);
+
+			// header with the new size
+			byte[] head = new byte[10];
+			copy(in, null, head, 10);
+			head[6] = (byte) ((tag_size >> 21) & 0x7f);
+			head[7] = (byte) ((tag_size >> 14) & 0x7f);
+			head[8] = (byte) ((tag_size >> 7) & 0x7f);
+			head[9] = (byte) (tag_size & 0x7f);
+			write(out, head);
+
+			long pos = 10;
+			for (Iterator<TagLayout.Frame> iter = layout.getFrames().iterator(); iter.hasNext();) {
+				TagLayout.Frame frame = iter.next();
+				long length = frame.getHeaderLength() + frame.getSize();
+				byte[] content = replaced.get(frame);
+				if (content == null) {
+					copy(in, out, null, length);
+				} else {
+					byte[] header = new byte[frame.getHeaderLength()];
+					copy(in, null, header, header.length);
+					skip(in, frame.getSize());
+					setSize(header, version, content.length);
+					write(out, header);
+					write(out, content);
+				}
+				pos += length;
+			}
+
+			// padding and everything after the tag
+			skip(in, layout.getPadding());
+			write(out, new byte[(int) layout.getPadding()]);
+			pos += layout.getPadding();
+			// to the end of the file, which may have grown since the layout
+			// was read
+			copyToEnd(in, out, layout.getFileLength() - pos);
+			in.close();
+			in = null;
+			out.close();
+			out = null;
+
+			// the old file is only removed once the new one is complete under
+			// its name: renamed over it, or copied while the old one is aside
+			if (rename(temp, file)) {
+				temp = null;
+			} else {
+				throttle.operation();
+				File backup = pri.nightmare.utils.File.getTempFile("ID3", file);
+				if (!rename(file, backup)) {
+					throw new IOException("Cannot move old file "+file+" aside");
+				}
+				try {
+					copyFile(temp, file);
+				} catch (IOException e) {
+					throttle.operation();
+					file.delete();
+					if (!rename(backup, file)) {
+						File kept = temp;
+						temp = null;		// the only complete copy of the new file
+						throw new IOException("Cannot replace "+file+": old file kept as "
+							+backup+", new file as "+kept, e);
+					}
+					throw e;
+				}
+				throttle.operation();
+				backup.delete();
+			}
+			replaced.clear();
+		} finally {
+			if (in != null) {
+				in.close();
+			}
+			if (out != null) {
+				out.close();
+			}
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * @return Number of bytes read from the file so far
+	 */
+	public long getBytesRead() {
+		return bytes_read;
+	}
+
+	/**
+	 * @return Number of bytes written so far
+	 */
+	public long getBytesWritten() {
+		return bytes_written;
+	}
+
+	/********** Private variables **********/
+
+	private File file;
+	private TagLayout layout;
+	private Throttle throttle;
+	private Map<TagLayout.Frame, byte[]> replaced = new HashMap<TagLayout.Frame, byte[]>(); // new content
+	private long bytes_read = 0;
+	private long bytes_written = 0;
+
+	/********** Private methods **********/
+
+	/**
+	 * Rename <code>from</code> to <code>to</code>, replacing <code>to</code>
+	 * where the platform allows it
+	 *
+	 * @return true if renamed
+	 */
+	boolean rename(File from, File to) throws IOException {
+		throttle.operation();
+		return from.renameTo(to);
+	}
+
+	/**
+	 * Copy <code>from</code> to <code>to</code>, for when the new file
+	 * cannot be renamed to the old one
+	 */
+	void copyFile(File from, File to) throws IOException {
+		pri.nightmare.utils.File.copy(from.getAbsolutePath(), to.getAbsolutePath(), throttle);
+	}
+
+	/**
+	 * Store <code>size</code> in a frame header
+	 */
+	private static void setSize(byte[] header, int version, int size) {
+		if (version == 2) {
+			header[3] = (byte) (size >> 16);
+			header[4] = (byte) (size >> 8);
+			header[5] = (byte) size;
+		} else if (version == 3) {
+			header[4] = (byte) (size >> 24);
+			header[5] = (byte) (size >> 16);
+			header[6] = (byte) (size >> 8);
+			header[7] = (byte) size;
+		} else {
+			header[4] = (byte) ((size >> 21) & 0x7f);
+			header[5] = (byte) ((size >> 14) & 0x7f);
+			header[6] = (byte) ((size >> 7) & 0x7f);
+			header[7] = (byte) (size & 0x7f);
+		}
+	}
+
+	/**
+	 * Copy <code>length</code> bytes from <code>in</code> to <code>out</code>
+	 * through a fixed buffer, or into <code>into</code> if it is not null
+	 */
+	private void copy(InputStream in, OutputStream out, byte[] into, long length)
+		throws IOException {
+		byte[] buf = into != null ? into : new byte[8192];
+		int off = 0;
+		while (length > 0) {
+			int len = in.read(buf, into != null ? off : 0,
+				(int) Math.min(length, into != null ? buf.length - off : buf.length));
+			if (len < 0) {
+				throw new IOException("Unexpected end of "+file);
+			}
+			bytes_read += len;
+			throttle.bytes(len);
+			if (into != null) {
+				off += len;
+			} else {
+				write(out, buf, len);
+			}
+			length -= len;
+		}
+	}
+
+	/**
+	 * Copy the rest of <code>in</code>, which must hold at least
+	 * <code>length</code> bytes
+	 */
+	private void copyToEnd(InputStream in, OutputStream out, long length)
+		throws IOException {
+		byte[] buf = new byte[8192];
+		for (int len; (len = in.read(buf)) > 0; ) {
+			bytes_read += len;
+			throttle.bytes(len);
+			write(out, buf, len);
+			length -= len;
+		}
+		if (length > 0) {
+			throw new IOException("Unexpected end of "+file);
+		}
+	}
+
+	private void skip(InputStream in, long length) throws IOException {
+		while (length > 0) {
+			long n = in.skip(length);
+			if (n <= 0) {
+				throw new IOException("Unexpected end of "+file);
+			}
+			length -= n;
+		}
+	}
+
+	private void write(OutputStream out, byte[] buf) throws IOException {
+		write(out, buf, buf.length);
+	}
+
+	private void write(OutputStream out, byte[] buf, int len) throws IOException {
+		out.write(buf, 0, len);
+		bytes_written += len;
+		throttle.bytes(len);
+	}
+}
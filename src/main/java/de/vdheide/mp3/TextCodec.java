@@ -0,0 +1,726 @@
+// TextCodec.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+// Copyright (C) 1999 Jens Vonderheide <jens@vdheide.de>
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Library General Public
+// License as published by the Free Software Foundation; either
+// version 2 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Library General Public License for more details.
+//
+// You should have received a copy of the GNU Library General Public
+// License along with this library; if not, write to the
+// Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+// Boston, MA  02111-1307, USA.
+
+package de.vdheide.mp3;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Decodes and encodes the text of frames without looking up charsets by
+ * name on every call and without intermediate arrays.
+ * <p>
+ * ISO-8859-1 and UTF-16, the two encodings of ID3v2.3 text, are converted
+ * by hand-written loops.  So are other single-byte charsets (code pages
+ * such as windows-1251 or KOI8-R), through a table of the 256 characters
+ * their bytes stand for.  What is known about a charset is worked out once
+ * and shared by all threads.  Any other charset goes through a
+ * <code>CharsetDecoder</code> or <code>CharsetEncoder</code>, kept with the
+ * buffers the text passes through on its way in a scratch that one call
+ * takes from a shared pool and puts back, so that they are reused by
+ * short-lived threads as well.
+ * Malformed input and unmappable characters are replaced, as by
+ * <code>new String(byte[], String)</code> and
+ * <code>String.getBytes(String)</code>, so that the results are the same.
+ * <p>
+ * <code>toUnicode</code> writes the content of a Unicode text frame
+ * directly: encoding byte, byte order mark, text and terminator end up in
+ * the one array it returns.  <code>toSmallest</code> does the same in
+ * whichever text encoding of ID3v2 takes the fewest bytes.
+ */
+public final class TextCodec {
+
+	/********** Public constants **********/
+
+	/** Text encoding 0 of ID3v2 */
+	public static final String ISO_8859_1 = "ISO-8859-1";
+
+	/**
+	 * Text encoding 1 of ID3v2: UTF-16 with byte order mark.  Decoded big
+	 * endian if the mark is missing, encoded big endian.
+	 */
+	public static final String UTF_16 = "UTF-16";
+
+	/** Text encoding 3 of ID3v2.4 */
+	public static final String UTF_8 = "UTF-8";
+
+	/********** Public methods **********/
+
+	/**
+	 * Decode <code>len</code> bytes of <code>in</code> from
+	 * <code>off</code>
+	 *
+	 * @param charset Name of the charset of the bytes
+	 * @return The text
+	 * @exception java.nio.charset.UnsupportedCharsetException If
+	 *            <code>charset</code> is not supported
+	 */
+	public static String decode(byte[] in, int off, int len, String charset) {
+		Codec codec = codec(charset);
+		Scratch scratch = take();
+		try {
+			char[] chars = scratch.chars(codec.maxChars(len));
+			int n = decode(scratch, codec, in, off, len, chars);
+			return new String(chars, 0, n);
+		} finally {
+			SCRATCH.offer(scratch);
+		}
+	}
+
+	/**
+	 * Transcode text to the content of a Unicode text frame: encoding byte
+	 * 1, byte order mark FF FE, the text in UTF-16 little endian and
+	 * <code>terminator</code> zero bytes.  Text that decodes to nothing
+	 * gives the encoding byte and the terminator only.
+	 *
+	 * @param off Start of the text in <code>in</code>
+	 * @param len Length of the text in bytes
+	 * @param charset Name of the charset of the text
+	 * @param terminator Zero bytes to end the content with
+	 * @return The new content, the only array allocated
+	 */
+	public static byte[] toUnicode(byte[] in, int off, int len, String charset, int terminator) {
+		Codec codec = codec(charset);
+		if (codec.kind == SINGLE_BYTE) {
+			return toUnicode(in, off, len, codec.table, terminator);
+		}
+		Scratch scratch = take();
+		try {
+			char[] chars = scratch.chars(codec.maxChars(len));
+			int n = decode(scratch, codec, in, off, len, chars);
+			return toUnicode(chars, n, terminator);
+		} finally {
+			SCRATCH.offer(scratch);
+		}
+	}
+
+	/**
+	 * Encode <code>text</code> to the content of a Unicode text frame, as
+	 * <code>toUnicode(byte[], int, int, String, int)</code> does
+	 */
+	public static byte[] toUnicode(String text, int terminator) {
+		int n = text.length();
+		Scratch scratch = take();
+		try {
+			char[] chars = scratch.chars(n);
+			text.getChars(0, n, chars, 0);
+			return toUnicode(chars, n, terminator);
+		} finally {
+			SCRATCH.offer(scratch);
+		}
+	}
+
+	/**
+	 * Transcode text to the content of a text frame in the encoding that
+	 * takes the fewest bytes.  That is ISO-8859-1 (encoding byte 0) if
+	 * every character is in it and its byte stands for the same character
+	 * in <code>charset</code>, so that the frame still reads the same as
+	 * text in the source charset.  Otherwise it is UTF-16 with byte order
+	 * mark FF FE (1) or, if <code>utf8</code> is true, UTF-8 (3), whichever
+	 * is shorter; UTF-16 on a tie.  Zero characters at the end of the text
+	 * are dropped, and one terminator is written in their place.
+	 *
+	 * @param off Start of the text in <code>in</code>
+	 * @param len Length of the text in bytes
+	 * @param charset Name of the charset of the text
+	 * @param utf8 True if UTF-8 may be chosen, in ID3v2.4 tags only
+	 * @return The new content, the only array allocated
+	 */
+	public static byte[] toSmallest(byte[] in, int off, int len, String charset, boolean utf8) {
+		Codec codec = codec(charset);
+		Scratch scratch = take();
+		try {
+			char[] chars = scratch.chars(codec.maxChars(len));
+			int n = decode(scratch, codec, in, off, len, chars);
+			return toSmallest(codec, chars, n, utf8);
+		} finally {
+			SCRATCH.offer(scratch);
+		}
+	}
+
+	/**
+	 * Encode <code>text</code> to the content of a text frame, as
+	 * <code>toSmallest(byte[], int, int, String, boolean)</code> does
+	 *
+	 * @param charset Name of the charset that text in ISO-8859-1 frames
+	 *        is read in
+	 */
+	public static byte[] toSmallest(String text, String charset, boolean utf8) {
+		Codec codec = codec(charset);
+		int n = text.length();
+		Scratch scratch = take();
+		try {
+			char[] chars = scratch.chars(n);
+			text.getChars(0, n, chars, 0);
+			return toSmallest(codec, chars, n, utf8);
+		} finally {
+			SCRATCH.offer(scratch);
+		}
+	}
+
+	/**
+	 * @return true if the bytes of ASCII stand for the same characters in
+	 *         <code>charset</code>, so that pure ASCII text reads the same
+	 *         as in ISO-8859-1
+	 */
+	public static boolean isAsciiCompatible(String charset) {
+		return codec(charset).ascii;
+	}
+
+	/**
+	 * @return true if none of <code>len</code> bytes of <code>in</code>
+	 *         from <code>off</code> is outside of ASCII
+	 */
+	public static boolean isAscii(byte[] in, int off, int len) {
+		for (int i = off, end = off + len; i < end; i++) {
+			if (in[i] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Encode <code>text</code> and write it to <code>out</code>.  UTF-16
+	 * starts with a byte order mark unless <code>text</code> is empty.
+	 *
+	 * @param charset Name of the charset to encode to
+	 * @exception IOException If <code>out</code> fails
+	 */
+	public static void write(String text, String charset, OutputStream out) throws IOException {
+		Codec codec = codec(charset);
+		Scratch scratch = take();
+		try {
+			write(scratch, codec, text, out);
+		} finally {
+			SCRATCH.offer(scratch);
+		}
+	}
+
+	/********** Private constants **********/
+
+	private static final int ISO = 0;
+	private static final int UNICODE = 1;
+	private static final int SINGLE_BYTE = 2;
+	private static final int OTHER = 3;
+
+	private static final char REPLACEMENT = '\ufffd';
+
+	/** Tables of single-byte charsets by canonical name, never modified */
+	private static final ConcurrentHashMap<String, char[]> TABLES =
+		new ConcurrentHashMap<String, char[]>();
+
+	/** What is known about a charset, by the name it is asked for */
+	private static final ConcurrentHashMap<String, Codec> CODECS =
+		new ConcurrentHashMap<String, Codec>();
+
+	/** Scratch arrays larger than this are not kept for the next call, in chars */
+	private static final int MAX_KEPT = 1 << 16;
+
+	/**
+	 * Scratches not in use right now.  A call takes one and puts it back,
+	 * so there are never more of them than calls running at once.
+	 */
+	private static final ConcurrentLinkedQueue<Scratch> SCRATCH =
+		new ConcurrentLinkedQueue<Scratch>();
+
+	/********** Private methods **********/
+
+	private TextCodec() {
+	}
+
+	/**
+	 * @exception java.nio.charset.UnsupportedCharsetException If
+	 *            <code>charset</code> is not supported
+	 */
+	private static Codec codec(String charset) {
+		Codec codec = CODECS.get(charset);
+		if (codec == null) {
+			codec = new Codec(charset);
+			Codec known = CODECS.putIfAbsent(charset, codec);
+			if (known != null) {
+				codec = known;
+			}
+		}
+		return codec;
+	}
+
+	/**
+	 * @return A scratch for this call alone, to be put back into
+	 *         <code>SCRATCH</code> when done
+	 */
+	private static Scratch take() {
+		Scratch scratch = SCRATCH.poll();
+		return scratch != null ? scratch : new Scratch();
+	}
+
+	/**
+	 * Encode <code>text</code> and write it, with buffers of
+	 * <code>scratch</code>
+	 */
+	private static void write(Scratch scratch, Codec codec, String text, OutputStream out)
+		throws IOException {
+		int n = text.length();
+		char[] chars = scratch.chars(n);
+		text.getChars(0, n, chars, 0);
+
+		if (codec.kind == ISO) {
+			byte[] bytes = scratch.bytes(n);
+			int len = 0;
+			for (int i = 0; i < n; i++) {
+				char c = chars[i];
+				if (Character.isHighSurrogate(c) && i + 1 < n
+					&& Character.isLowSurrogate(chars[i + 1])) {
+					i++;		// one character, one replacement
+				}
+				bytes[len++] = (byte) (c <= 0xff ? c : '?');
+			}
+			out.write(bytes, 0, len);
+		} else if (codec.kind == UNICODE) {
+			if (n == 0) {
+				return;
+			}
+			byte[] bytes = scratch.bytes(2 * n + 2);
+			bytes[0] = (byte) 0xfe;
+			bytes[1] = (byte) 0xff;
+			int len = 2;
+			for (int i = 0; i < n; i++) {
+				char c = chars[i];
+				if (Character.isSurrogate(c)) {
+					if (Character.isHighSurrogate(c) && i + 1 < n
+						&& Character.isLowSurrogate(chars[i + 1])) {
+						bytes[len++] = (byte) (c >> 8);
+						bytes[len++] = (byte) c;
+						c = chars[++i];
+					} else {
+						c = REPLACEMENT;
+					}
+				}
+				bytes[len++] = (byte) (c >> 8);
+				bytes[len++] = (byte) c;
+			}
+			out.write(bytes, 0, len);
+		} else {
+			CharsetEncoder encoder = scratch.encoder(codec);
+			byte[] bytes = scratch.bytes((int) Math.ceil(n * encoder.maxBytesPerChar()) + 16);
+			ByteBuffer dst = ByteBuffer.wrap(bytes);
+			encoder.reset();
+			encoder.encode(CharBuffer.wrap(chars, 0, n), dst, true);
+			encoder.flush(dst);
+			out.write(bytes, 0, dst.position());
+		}
+	}
+
+	/**
+	 * Decode into <code>chars</code>, which holds at least
+	 * <code>codec.maxChars(len)</code> characters
+	 *
+	 * @return Number of characters decoded
+	 */
+	private static int decode(Scratch scratch, Codec codec, byte[] in, int off, int len,
+		char[] chars) {
+		if (codec.kind == ISO) {
+			for (int i = 0; i < len; i++) {
+				chars[i] = (char) (in[off + i] & 0xff);
+			}
+			return len;
+		} else if (codec.kind == UNICODE) {
+			return decodeUnicode(in, off, len, chars);
+		} else if (codec.kind == SINGLE_BYTE) {
+			char[] table = codec.table;
+			for (int i = 0; i < len; i++) {
+				chars[i] = table[in[off + i] & 0xff];
+			}
+			return len;
+		}
+
+		CharsetDecoder decoder = scratch.decoder(codec);
+		CharBuffer dst = CharBuffer.wrap(chars);
+		decoder.reset();
+		decoder.decode(ByteBuffer.wrap(in, off, len), dst, true);
+		decoder.flush(dst);
+		return dst.position();
+	}
+
+	/**
+	 * Decode UTF-16 with optional byte order mark, replacing unpaired
+	 * surrogates and a trailing odd byte
+	 */
+	private static int decodeUnicode(byte[] in, int off, int len, char[] chars) {
+		int end = off + len;
+		boolean little = false;
+		if (len >= 2) {
+			int mark = (in[off] & 0xff) << 8 | in[off + 1] & 0xff;
+			if (mark == 0xfeff || mark == 0xfffe) {
+				little = mark == 0xfffe;
+				off += 2;
+			}
+		}
+		int n = 0;
+		while (off + 1 < end) {
+			char c = little ? (char) ((in[off + 1] & 0xff) << 8 | in[off] & 0xff)
+				: (char) ((in[off] & 0xff) << 8 | in[off + 1] & 0xff);
+			off += 2;
+			if (Character.isHighSurrogate(c)) {
+				if (off + 1 >= end) {
+					c = REPLACEMENT;		// with a trailing odd byte, if any
+					off = end;
+				} else {
+					char d = little ? (char) ((in[off + 1] & 0xff) << 8 | in[off] & 0xff)
+						: (char) ((in[off] & 0xff) << 8 | in[off + 1] & 0xff);
+					off += 2;
+					if (Character.isLowSurrogate(d)) {
+						chars[n++] = c;
+						c = d;
+					} else {
+						c = REPLACEMENT;		// the next character is dropped, as by the JDK
+					}
+				}
+			} else if (Character.isLowSurrogate(c)) {
+				c = REPLACEMENT;
+			}
+			chars[n++] = c;
+		}
+		if (off < end) {
+			chars[n++] = REPLACEMENT;
+		}
+		return n;
+	}
+
+	/**
+	 * @return Content of a Unicode text frame holding <code>len</code>
+	 *         bytes of a single-byte charset, looked up in
+	 *         <code>table</code> and written in the same loop
+	 */
+	private static byte[] toUnicode(byte[] in, int off, int len, char[] table, int terminator) {
+		byte[] out = new byte[len == 0 ? 1 + terminator : 1 + 2 + 2 * len + terminator];
+		out[0] = 1;
+		if (len == 0) {
+			return out;
+		}
+		out[1] = (byte) 0xff;
+		out[2] = (byte) 0xfe;
+		for (int i = 0, pos = 3; i < len; i++, pos += 2) {
+			char c = table[in[off + i] & 0xff];
+			out[pos] = (byte) c;
+			out[pos + 1] = (byte) (c >> 8);
+		}
+		return out;
+	}
+
+	/**
+	 * @return Content of a Unicode text frame holding the first
+	 *         <code>n</code> of <code>chars</code>
+	 */
+	private static byte[] toUnicode(char[] chars, int n, int terminator) {
+		if (n == 0) {
+			byte[] out = new byte[1 + terminator];		// no byte order mark without text
+			out[0] = 1;
+			return out;
+		}
+		byte[] out = new byte[1 + 2 + 2 * n + terminator];
+		out[0] = 1;
+		out[1] = (byte) 0xff;
+		out[2] = (byte) 0xfe;
+		int pos = 3;
+		for (int i = 0; i < n; i++) {
+			char c = chars[i];
+			if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < n
+					&& Character.isLowSurrogate(chars[i + 1])) {
+					out[pos++] = (byte) c;
+					out[pos++] = (byte) (c >> 8);
+					c = chars[++i];
+				} else {
+					c = REPLACEMENT;
+				}
+			}
+			out[pos++] = (byte) c;
+			out[pos++] = (byte) (c >> 8);
+		}
+		return out;
+	}
+
+	/**
+	 * @return Content of a text frame holding the first <code>n</code> of
+	 *         <code>chars</code> in the shortest encoding, with
+	 *         ISO-8859-1 read back in <code>codec</code>
+	 */
+	private static byte[] toSmallest(Codec codec, char[] chars, int n, boolean utf8) {
+		while (n > 0 && chars[n - 1] == 0) {
+			n--;
+		}
+		boolean latin = true;
+		int utf8Length = 0;
+		for (int i = 0; i < n; i++) {
+			char c = chars[i];
+			if (latin && !codec.readsBack(c)) {
+				latin = false;
+			}
+			if (c < 0x80) {
+				utf8Length++;
+			} else if (c < 0x800) {
+				utf8Length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < n
+				&& Character.isLowSurrogate(chars[i + 1])) {
+				utf8Length += 4;
+				i++;
+			} else {
+				utf8Length += 3;		// unpaired surrogates are replaced by U+FFFD
+			}
+		}
+
+		if (latin) {
+			byte[] out = new byte[1 + n + 1];
+			for (int i = 0; i < n; i++) {
+				out[1 + i] = (byte) chars[i];
+			}
+			return out;
+		}
+		int unicodeLength = 2 + 2 * n + 2;
+		if (!utf8 || utf8Length + 1 >= unicodeLength) {
+			return toUnicode(chars, n, 2);
+		}
+
+		byte[] out = new byte[1 + utf8Length + 1];
+		out[0] = 3;
+		int pos = 1;
+		for (int i = 0; i < n; i++) {
+			int c = chars[i];
+			if (Character.isSurrogate((char) c)) {
+				if (Character.isHighSurrogate((char) c) && i + 1 < n
+					&& Character.isLowSurrogate(chars[i + 1])) {
+					c = Character.toCodePoint((char) c, chars[++i]);
+				} else {
+					c = REPLACEMENT;
+				}
+			}
+			if (c < 0x80) {
+				out[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				out[pos++] = (byte) (0xc0 | c >> 6);
+				out[pos++] = (byte) (0x80 | c & 0x3f);
+			} else if (c < 0x10000) {
+				out[pos++] = (byte) (0xe0 | c >> 12);
+				out[pos++] = (byte) (0x80 | c >> 6 & 0x3f);
+				out[pos++] = (byte) (0x80 | c & 0x3f);
+			} else {
+				out[pos++] = (byte) (0xf0 | c >> 18);
+				out[pos++] = (byte) (0x80 | c >> 12 & 0x3f);
+				out[pos++] = (byte) (0x80 | c >> 6 & 0x3f);
+				out[pos++] = (byte) (0x80 | c & 0x3f);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * @return true if every byte of <code>charset</code> stands for one
+	 *         character on its own
+	 */
+	private static boolean isSingleByte(Charset charset) {
+		return charset.canEncode()
+			&& charset.newEncoder().maxBytesPerChar() == 1
+			&& charset.newDecoder().maxCharsPerByte() == 1;
+	}
+
+	/**
+	 * @return Characters of the 256 bytes of a single-byte charset, with
+	 *         U+FFFD for unmapped bytes, as <code>new String</code> gives
+	 */
+	private static char[] table(Charset charset) {
+		char[] table = TABLES.get(charset.name());
+		if (table != null) {
+			return table;
+		}
+		table = new char[256];
+		CharsetDecoder decoder = charset.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		byte[] all = new byte[256];
+		for (int b = 0; b < 256; b++) {
+			all[b] = (byte) b;
+		}
+		CharBuffer chars = CharBuffer.wrap(table);
+		decoder.decode(ByteBuffer.wrap(all), chars, true);
+		decoder.flush(chars);
+		if (chars.position() != 256) {
+			throw new IllegalStateException(charset+" is not a single-byte charset");
+		}
+		char[] known = TABLES.putIfAbsent(charset.name(), table);
+		return known != null ? known : table;
+	}
+
+	/********** Private classes **********/
+
+	/**
+	 * Charset of a name and what is known about it.  Never modified once
+	 * built, and shared by all threads.
+	 */
+	private static final class Codec {
+		Codec(String name) {
+			charset = Charset.forName(name);
+			String canonical = charset.name();
+			if (canonical.equals("ISO-8859-1")) {
+				kind = ISO;
+			} else if (canonical.equals("UTF-16")) {
+				kind = UNICODE;
+			} else if (isSingleByte(charset)) {
+				kind = SINGLE_BYTE;
+			} else {
+				kind = OTHER;
+			}
+			table = kind == SINGLE_BYTE ? table(charset) : null;
+
+			CharsetDecoder decoder = kind == OTHER ? newDecoder() : null;
+			maxCharsPerByte = decoder != null ? decoder.maxCharsPerByte() : 1;
+
+			// do the bytes of ASCII stand for the same characters?
+			byte[] all = new byte[128];
+			for (int b = 0; b < all.length; b++) {
+				all[b] = (byte) b;
+			}
+			char[] chars = new char[maxChars(all.length)];
+			int n;
+			if (decoder != null) {
+				CharBuffer dst = CharBuffer.wrap(chars);
+				decoder.decode(ByteBuffer.wrap(all), dst, true);
+				decoder.flush(dst);
+				n = dst.position();
+			} else {
+				n = decode(null, this, all, 0, all.length, chars);
+			}
+			boolean same = n == all.length;
+			for (int i = 0; same && i < n; i++) {
+				same = chars[i] == i;
+			}
+			ascii = same;
+		}
+
+		/**
+		 * @return Characters decoded from <code>len</code> bytes at most
+		 */
+		int maxChars(int len) {
+			if (kind != OTHER) {
+				return len;
+			}
+			return (int) Math.ceil(len * (double) maxCharsPerByte);
+		}
+
+		/**
+		 * @return true if <code>c</code> is in ISO-8859-1 and its byte
+		 *         stands for <code>c</code> in this charset as well
+		 */
+		boolean readsBack(char c) {
+			if (c < 0x80) {
+				return ascii;
+			} else if (c > 0xff) {
+				return false;
+			}
+			return kind == ISO || (kind == SINGLE_BYTE && table[c] == c);
+		}
+
+		CharsetDecoder newDecoder() {
+			return charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+
+		CharsetEncoder newEncoder() {
+			return charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+
+		final int kind;
+		/** Characters of the 256 bytes of a single-byte charset, or null */
+		final char[] table;
+		/** true if the bytes of ASCII stand for the same characters */
+		final boolean ascii;
+		private final Charset charset;
+		private final float maxCharsPerByte;
+	}
+
+	/**
+	 * Decoders, encoders and buffers of one call at a time
+	 */
+	private static final class Scratch {
+		CharsetDecoder decoder(Codec codec) {
+			CharsetDecoder decoder = decoders.get(codec);
+			if (decoder == null) {
+				decoder = codec.newDecoder();
+				decoders.put(codec, decoder);
+			}
+			return decoder;
+		}
+
+		CharsetEncoder encoder(Codec codec) {
+			CharsetEncoder encoder = encoders.get(codec);
+			if (encoder == null) {
+				encoder = codec.newEncoder();
+				encoders.put(codec, encoder);
+			}
+			return encoder;
+		}
+
+		/**
+		 * @return A buffer of at least <code>n</code> characters
+		 */
+		char[] chars(int n) {
+			if (n <= chars.length) {
+				return chars;
+			}
+			char[] c = new char[Math.max(n, 2 * chars.length)];
+			if (c.length <= MAX_KEPT) {
+				chars = c;
+			}
+			return c;
+		}
+
+		/**
+		 * @return A buffer of at least <code>n</code> bytes
+		 */
+		byte[] bytes(int n) {
+			if (n <= bytes.length) {
+				return bytes;
+			}
+			byte[] b = new byte[Math.max(n, 2 * bytes.length)];
+			if (b.length <= 2 * MAX_KEPT) {
+				bytes = b;
+			}
+			return b;
+		}
+
+		private Map<Codec, CharsetDecoder> decoders = new HashMap<Codec, CharsetDecoder>();
+		private Map<Codec, CharsetEncoder> encoders = new HashMap<Codec, CharsetEncoder>();
+		private char[] chars = new char[256];
+		private byte[] bytes = new byte[512];
+	}
+}
@@ -0,0 +1,425 @@
+package net.zhoufeng;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs conversions on a bounded pool of worker threads.
+ * <p>
+ * Every file is converted independently: an exception thrown while converting
+ * one file is recorded and does not affect the others.  At most twice as many
+ * files as there are workers are queued at any time, so that <code>submit</code>
+ * blocks the producer instead of buffering a whole directory tree.
+ * <p>
+ * With a single worker, files are converted on the calling thread in the order
+ * they are submitted, exactly as a plain loop would do.
+ * <p>
+ * A running batch can be paused, resized and throttled, e.g. through
+ * <code>ConversionControl</code>.
+ */
+class BatchConverter {
+
+	final ID3iconv encoder;
+	private final ExecutorService pool;
+	private final Slots slots;
+	private final int queued;
+	private int concurrency;
+	private boolean paused;
+
+	final Progress progress = new Progress();
+	private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<String>();
+	private Manifest manifest;
+	private InodeOrder order;
+	/** True if files are converted on more than one thread */
+	boolean concurrent;
+	private long started;
+	private long finished;
+
+	/**
+	 * @param encoder Converter shared by all workers
+	 * @param threads Number of worker threads
+	 */
+	BatchConverter(ID3iconv encoder, int threads) {
+		this(encoder, threads > 1 ? Executors.newFixedThreadPool(threads) : null,
+				threads, 2);
+	}
+
+	/**
+	 * Convert every file on its own virtual thread.  The semaphore, not the
+	 * executor, bounds how many conversions are in flight at once.
+	 *
+	 * @param encoder Converter shared by all workers
+	 * @param concurrency Maximum number of files converted at the same time
+	 * @exception UnsupportedOperationException If the JVM has no virtual threads
+	 */
+	static BatchConverter withVirtualThreads(ID3iconv encoder, int concurrency) {
+		return new BatchConverter(encoder, newVirtualThreadExecutor(),
+				concurrency, 1);
+	}
+
+	/**
+	 * @param encoder Converter shared by all workers
+	 * @param pool Runs the conversions, or null to run them on the caller's thread
+	 * @param concurrency Number of files converted at the same time
+	 * @param queued Files queued or in flight per unit of concurrency
+	 */
+	BatchConverter(ID3iconv encoder, ExecutorService pool, int concurrency, int queued) {
+		this.encoder = encoder;
+		this.pool = pool;
+		this.slots = pool != null ? new Slots(concurrency * queued) : null;
+		this.concurrency = concurrency;
+		this.queued = queued;
+		this.concurrent = pool != null;
+		started = System.currentTimeMillis();
+	}
+
+	/**
+	 * Looked up reflectively so that the tool still builds and runs on
+	 * JVMs older than Java 21, where only platform threads are available.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) m.invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedOperationException(
+					"Virtual threads require Java 21 or later");
+		} catch (Exception e) {
+			throw new UnsupportedOperationException(
+					"Cannot create virtual threads: "+e);
+		}
+	}
+
+	/**
+	 * Skip files recorded in <code>manifest</code> as unchanged, and record
+	 * every file converted from now on.  Must be called before the first
+	 * <code>submit</code>.
+	 *
+	 * @param manifest Manifest of earlier runs
+	 */
+	void setManifest(Manifest manifest) {
+		this.manifest = manifest;
+	}
+
+	/**
+	 * Convert files in the order given by <code>order</code> instead of the
+	 * order they are submitted.  Must be called before the first
+	 * <code>submit</code>.
+	 *
+	 * @param order Reorders pending files
+	 */
+	void setOrder(InodeOrder order) {
+		this.order = order;
+	}
+
+	/**
+	 * Queue a file for conversion.  Blocks while the queue is full.
+	 *
+	 * @param file File to convert
+	 * @param attrs Attributes of <code>file</code>, as read when it was found
+	 */
+	final void submit(File file, BasicFileAttributes attrs)
+		throws InterruptedException {
+		progress.discovered();
+		if (skip(file, attrs))
+			return;
+		if (order == null) {
+			awaitResumed();
+			dispatch(file, attrs);
+		} else if (order.add(file, attrs)) {
+			dispatchOrdered();
+		}
+	}
+
+	/**
+	 * Wait until all submitted files are converted.
+	 */
+	final void finish() {
+		try {
+			flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		drain();
+		progress.stop();
+		finished = System.currentTimeMillis();
+	}
+
+	/**
+	 * Start converting the files held back for ordering, without waiting
+	 * for the window to fill up
+	 */
+	final void flush() throws InterruptedException {
+		if (order != null)
+			dispatchOrdered();
+	}
+
+	/**
+	 * Wait until every file submitted so far is done, without finishing
+	 * the batch: more files can be submitted afterwards.
+	 */
+	final void await() throws InterruptedException {
+		flush();
+		synchronized (progress) {
+			while (progress.done() < progress.found())
+				progress.wait(1000);
+		}
+	}
+
+	private void dispatchOrdered() throws InterruptedException {
+		for (InodeOrder.Entry e : order.drain()) {
+			awaitResumed();
+			dispatch(e.file, e.attrs);
+		}
+	}
+
+	/**
+	 * Stop handing out files for conversion.  Files already being
+	 * converted, or queued in a pipeline, are finished.
+	 */
+	synchronized void pause() {
+		paused = true;
+	}
+
+	synchronized void resume() {
+		paused = false;
+		notifyAll();
+	}
+
+	synchronized boolean isPaused() {
+		return paused;
+	}
+
+	private synchronized void awaitResumed() throws InterruptedException {
+		while (paused)
+			wait();
+	}
+
+	/**
+	 * @return Number of files converted at the same time
+	 */
+	synchronized int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Change the number of files converted at the same time.  When it is
+	 * lowered, conversions already running are finished first.
+	 *
+	 * @exception UnsupportedOperationException If the batch does not run on
+	 *            a pool of workers
+	 */
+	synchronized void setConcurrency(int n) {
+		if (slots == null)
+			throw new UnsupportedOperationException(
+					"Concurrency can only be changed with -j or --virtual-threads");
+		if (n < 1)
+			throw new IllegalArgumentException("Invalid number of workers: "+n);
+		if (pool instanceof ThreadPoolExecutor) {
+			ThreadPoolExecutor workers = (ThreadPoolExecutor) pool;
+			// the core size must never exceed the maximum size
+			if (n > workers.getMaximumPoolSize()) {
+				workers.setMaximumPoolSize(n);
+				workers.setCorePoolSize(n);
+			} else {
+				workers.setCorePoolSize(n);
+				workers.setMaximumPoolSize(n);
+			}
+		}
+		int delta = (n - concurrency) * queued;
+		if (delta > 0)
+			slots.release(delta);
+		else
+			slots.reduce(-delta);
+		concurrency = n;
+	}
+
+	/**
+	 * Start converting a file that is not skipped.  Blocks while the queue
+	 * is full.
+	 */
+	void dispatch(final File file, final BasicFileAttributes attrs)
+		throws InterruptedException {
+		if (pool == null) {
+			convert(file, attrs);
+			return;
+		}
+		slots.acquire();
+		try {
+			pool.execute(new Runnable() {
+				public void run() {
+					try {
+						convert(file, attrs);
+					} finally {
+						slots.release();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			slots.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Wait until all dispatched files are converted.
+	 */
+	void drain() {
+		if (pool != null) {
+			pool.shutdown();
+			try {
+				while (!pool.awaitTermination(1, TimeUnit.MINUTES))
+					;
+			} catch (InterruptedException e) {
+				pool.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Print number of files per outcome and all failures, sorted by path.
+	 */
+	void printSummary() {
+		long total = progress.done();
+		long millis = Math.max(finished - started, 1);
+
+		encoder.info("");
+		encoder.info("Summary: "+total+" files in "+(millis / 1000.0)+"s ("
+				+(total * 1000 / millis)+" files/s, "
+				+(order != null ? order.toString() : "walk order")+")");
+		for (Result r : Result.values()) {
+			encoder.info("  "+r.name().toLowerCase()+": "+progress.get(r));
+		}
+		encoder.info("Latency (ms): median "+Progress.format(progress.latency.percentile(50))
+				+", 90th "+Progress.format(progress.latency.percentile(90))
+				+", 99th "+Progress.format(progress.latency.percentile(99))
+				+", max "+Progress.format(progress.latency.max()));
+		if (encoder.frames != null)
+			encoder.info(encoder.frames.toString());
+		if (encoder.encodings != null)
+			encoder.info(encoder.encodings.toString());
+		List<String> sorted = new ArrayList<String>(failures);
+		Collections.sort(sorted);
+		for (String s : sorted) {
+			encoder.error("  failed: "+s);
+		}
+	}
+
+	/**
+	 * @return Number of files that failed to convert
+	 */
+	long getFailures() {
+		return progress.get(Result.FAILED);
+	}
+
+	private void convert(File file, BasicFileAttributes attrs) {
+		Conversion c = new Conversion(file, attrs);
+		try {
+			encoder.convert(c);
+		} catch (Exception e) {
+			failed(c, e);
+			return;
+		}
+		completed(c);
+	}
+
+	/**
+	 * Count <code>file</code> as skipped if the manifest says it is unchanged
+	 *
+	 * @return true if <code>file</code> should not be converted
+	 */
+	private boolean skip(File file, BasicFileAttributes attrs) {
+		if (manifest != null && attrs != null && manifest.isUnchanged(file, attrs)) {
+			progress.done(Result.SKIPPED, 0, 0);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Count a conversion that went through all phases and record it in the manifest
+	 */
+	void completed(Conversion c) {
+		if (manifest != null && !encoder.isDryRun()) try {
+			BasicFileAttributes attrs = c.attrs;
+			if (attrs == null || c.needsWrite()) {
+				// the file was rewritten, record its new attributes
+				attrs = Files.readAttributes(c.file.toPath(), BasicFileAttributes.class);
+			}
+			manifest.record(c.file, attrs, c.result);
+		} catch (IOException e) {
+			failed(c, e);
+			return;
+		}
+		count(c, c.result);
+	}
+
+	/**
+	 * Count a conversion that failed in any phase
+	 */
+	void failed(Conversion c, Exception e) {
+		progress.failed(e);
+		failures.add(c.file.getPath()+": "+e);
+		encoder.error("Error converting "+c.file.getPath()+": "+e);
+		if (!concurrent)
+			encoder.trace(e);
+		count(c, Result.FAILED);
+	}
+
+	/**
+	 * Count the outcome, bytes and time of a conversion, and give its
+	 * memory back to the budget
+	 */
+	private void count(Conversion c, Result result) {
+		long read = bytesRead(c);
+		long written = bytesWritten(c);
+		encoder.release(c);
+		progress.done(result, read, written);
+		progress.latency.record(System.nanoTime() - c.created);
+		synchronized (progress) {
+			progress.notifyAll();
+		}
+	}
+
+	private static long bytesRead(Conversion c) {
+		return (c.id3 != null ? c.id3.getBytesRead() : 0)
+				+ (c.id3v2 != null ? c.id3v2.getBytesRead() : 0)
+				+ (c.layout != null ? c.layout.getBytesRead() : 0)
+				+ (c.rewriter != null ? c.rewriter.getBytesRead() : 0);
+	}
+
+	private static long bytesWritten(Conversion c) {
+		return (c.id3 != null ? c.id3.getBytesWritten() : 0)
+				+ (c.id3v2 != null ? c.id3v2.getBytesWritten() : 0)
+				+ (c.rewriter != null ? c.rewriter.getBytesWritten() : 0);
+	}
+
+	/**
+	 * Semaphore whose number of permits can be lowered without waiting for
+	 * them, which only a subclass can do
+	 */
+	private static class Slots extends Semaphore {
+		private static final long serialVersionUID = 1L;
+
+		Slots(int permits) {
+			super(permits);
+		}
+
+		void reduce(int permits) {
+			reducePermits(permits);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package net.zhoufeng;
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import de.vdheide.mp3.ID3;
+import de.vdheide.mp3.ID3v2;
+import de.vdheide.mp3.TagLayout;
+import de.vdheide.mp3.TagRewriter;
+
+/**
+ * State of a single file while it is being converted.  It is handed from
+ * one phase of <code>ID3iconv.convert</code> to the next: parse, transcode
+ * and write.  Only one thread works on a conversion at any time.
+ */
+class Conversion {
+
+	final File file;
+	final BasicFileAttributes attrs;
+	/** Time the file was handed to a converter, for latency statistics */
+	final long created = System.nanoTime();
+
+	ID3 id3;
+	ID3v2 id3v2;
+	boolean hasv1;
+	boolean hasv2;
+	/**
+	 * Layout of the tags, read instead of the tags themselves by --scan and
+	 * for tags too large for the memory budget
+	 */
+	TagLayout layout;
+	/** Rewrites a tag too large for the memory budget, instead of id3v2 */
+	TagRewriter rewriter;
+	/** Memory reserved from the budget while the file is in flight */
+	long reserved;
+
+	/** Source encoding of the tags, set by the transcode phase */
+	String encoding;
+	/** Confidence of a detected source encoding, 0 to 1; 1 if it was given */
+	double confidence;
+	/** Outcome, set by the transcode phase */
+	Result result;
+	/** Set by the transcode phase if the v2 tag must be written */
+	boolean updateV2;
+	/** Set by the transcode phase if the v1 tag must be removed */
+	boolean removeV1;
+
+	/**
+	 * @param file File to convert
+	 * @param attrs Attributes of <code>file</code> if already known, or null
+	 */
+	Conversion(File file, BasicFileAttributes attrs) {
+		this.file = file;
+		this.attrs = attrs;
+	}
+
+	/**
+	 * @return true if the write phase has anything to do
+	 */
+	boolean needsWrite() {
+		return updateV2 || removeV1;
+	}
+}
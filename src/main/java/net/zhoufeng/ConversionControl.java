@@ -0,0 +1,150 @@
+package net.zhoufeng;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposes the counters of a batch over JMX and lets operators pause it,
+ * resize it or limit its I/O while it runs.
+ */
+class ConversionControl implements ConversionControlMXBean {
+
+	/** Tells apart the batches of one daemon process */
+	private static final AtomicInteger RUNS = new AtomicInteger();
+
+	private final BatchConverter batch;
+	private final Progress progress;
+	private ObjectName name;
+
+	ConversionControl(BatchConverter batch) {
+		this.batch = batch;
+		this.progress = batch.progress;
+	}
+
+	/**
+	 * Register with the platform MBean server, under a name of its own
+	 * among the batches a daemon runs at the same time
+	 */
+	void register() throws JMException {
+		name = new ObjectName("net.zhoufeng:type=ID3iconv,run="+RUNS.incrementAndGet());
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+	}
+
+	void unregister() {
+		if (name != null) try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.unregisterMBean(name);
+		} catch (JMException e) {
+			// already gone
+		}
+	}
+
+	public long getFilesFound() {
+		return progress.found();
+	}
+
+	public long getFilesDone() {
+		return progress.done();
+	}
+
+	public long getV1Converted() {
+		return progress.get(Result.V1_CONVERTED);
+	}
+
+	public long getV2Reencoded() {
+		return progress.get(Result.V2_REENCODED);
+	}
+
+	public long getUnchanged() {
+		return progress.get(Result.UNCHANGED);
+	}
+
+	public long getNoTag() {
+		return progress.get(Result.NO_TAG);
+	}
+
+	public long getSkipped() {
+		return progress.get(Result.SKIPPED);
+	}
+
+	public long getFailed() {
+		return progress.get(Result.FAILED);
+	}
+
+	public long getBytesRead() {
+		return progress.bytesRead();
+	}
+
+	public long getBytesWritten() {
+		return progress.bytesWritten();
+	}
+
+	public Map<String, Long> getErrorsByType() {
+		return progress.errors();
+	}
+
+	public double getLatencyMedianMillis() {
+		return progress.latency.percentile(50);
+	}
+
+	public double getLatency90thMillis() {
+		return progress.latency.percentile(90);
+	}
+
+	public double getLatency99thMillis() {
+		return progress.latency.percentile(99);
+	}
+
+	public double getLatencyMaxMillis() {
+		return progress.latency.max();
+	}
+
+	public long getFrameCacheHits() {
+		return batch.encoder.frames != null ? batch.encoder.frames.hits() : 0;
+	}
+
+	public long getFrameCacheMisses() {
+		return batch.encoder.frames != null ? batch.encoder.frames.misses() : 0;
+	}
+
+	public boolean isPaused() {
+		return batch.isPaused();
+	}
+
+	public void pause() {
+		batch.pause();
+	}
+
+	public void resume() {
+		batch.resume();
+	}
+
+	public int getConcurrency() {
+		return batch.getConcurrency();
+	}
+
+	public void setConcurrency(int concurrency) {
+		batch.setConcurrency(concurrency);
+	}
+
+	public long getRateLimit() {
+		return batch.encoder.bytesLimit.getRate();
+	}
+
+	public void setRateLimit(long bytesPerSecond) {
+		batch.encoder.bytesLimit.setRate(bytesPerSecond);
+	}
+
+	public long getOperationLimit() {
+		return batch.encoder.operationsLimit.getRate();
+	}
+
+	public void setOperationLimit(long operationsPerSecond) {
+		batch.encoder.operationsLimit.setRate(operationsPerSecond);
+	}
+}
@@ -0,0 +1,93 @@
+package net.zhoufeng;
+
+import java.util.Map;
+
+/**
+ * Management interface of a running batch, registered with the platform
+ * MBean server as <code>net.zhoufeng:type=ID3iconv,run=</code><i>n</i> when
+ * <code>--jmx</code> is given, <i>n</i> counting the batches of the process.  It can be used from jconsole or any other
+ * JMX client.
+ */
+public interface ConversionControlMXBean {
+
+	long getFilesFound();
+
+	long getFilesDone();
+
+	long getV1Converted();
+
+	long getV2Reencoded();
+
+	long getUnchanged();
+
+	long getNoTag();
+
+	long getSkipped();
+
+	long getFailed();
+
+	long getBytesRead();
+
+	long getBytesWritten();
+
+	/**
+	 * @return Number of failures by exception type, e.g.
+	 *         <code>ID3v2DecompressionException</code>
+	 */
+	Map<String, Long> getErrorsByType();
+
+	/**
+	 * @return Median time from handing a file to a worker until it is done,
+	 *         in milliseconds
+	 */
+	double getLatencyMedianMillis();
+
+	double getLatency90thMillis();
+
+	double getLatency99thMillis();
+
+	double getLatencyMaxMillis();
+
+	/**
+	 * @return Text frames whose transcoded content was found in the frame
+	 *         cache, 0 if there is none
+	 */
+	long getFrameCacheHits();
+
+	long getFrameCacheMisses();
+
+	boolean isPaused();
+
+	/**
+	 * Stop starting new files; files already in progress are finished
+	 */
+	void pause();
+
+	void resume();
+
+	/**
+	 * @return Number of files converted at the same time
+	 */
+	int getConcurrency();
+
+	/**
+	 * Only supported with <code>-j</code> and <code>--virtual-threads</code>
+	 */
+	void setConcurrency(int concurrency);
+
+	/**
+	 * @return Bytes read and written per second by all workers together,
+	 *         0 for no limit
+	 */
+	long getRateLimit();
+
+	void setRateLimit(long bytesPerSecond);
+
+	/**
+	 * @return Files opened, created, deleted or renamed per second by all
+	 *         workers together, 0 for no limit
+	 */
+	long getOperationLimit();
+
+	void setOperationLimit(long operationsPerSecond);
+}
@@ -0,0 +1,243 @@
+package net.zhoufeng;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a warmed-up JVM around and runs conversions for clients connecting
+ * over a Unix domain socket, so that scripts converting a few files at a
+ * time do not pay for starting the JVM and loading classes on every call.
+ * <p>
+ * A request is the client's working directory followed by the command line
+ * arguments, each terminated by a NUL byte; the client then shuts down its
+ * side of the connection.  Every line of the response starts with a
+ * channel: <code>1</code> for standard output, <code>2</code> for standard
+ * error.  The last line is <code>x</code> followed by the exit status.
+ * <code>bin/id3iconvc</code> is a client for the shell.
+ * <p>
+ * Up to eight connections are served at the same time, each
+ * on a thread of its own; further clients wait until one of them is done.
+ * <code>--watch</code> never ends and is refused.
+ */
+class Daemon {
+
+	/** Rounds of training run before the first client is accepted */
+	private static final int WARM_UP_ROUNDS = 20;
+
+	/** Clients served at the same time */
+	private static final int MAX_CLIENTS = 8;
+
+	private final File socket;
+	private final Charset charset;
+
+	/**
+	 * @param socket Path of the socket to listen on
+	 */
+	Daemon(File socket) {
+		this.socket = socket;
+		// decode arguments as the JVM decodes file names
+		this.charset = Charset.forName(System.getProperty("sun.jnu.encoding",
+				Charset.defaultCharset().name()));
+	}
+
+	/**
+	 * Accept clients until the process is killed
+	 *
+	 * @exception IOException If the socket cannot be created
+	 */
+	void serve() throws IOException {
+		UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socket.toPath());
+		if (socket.exists()) {
+			if (isListening(address))
+				throw new IOException("Another daemon is listening on "+socket);
+			// left behind by a daemon that was killed
+			Files.delete(socket.toPath());
+		}
+		ServerSocketChannel server = bind(socket.toPath());
+		socket.deleteOnExit();
+
+		Training.run(WARM_UP_ROUNDS);
+		System.out.println("Listening on "+socket);
+		ExecutorService clients = Executors.newFixedThreadPool(MAX_CLIENTS);
+		for (;;) {
+			final SocketChannel client = server.accept();
+			clients.execute(new Runnable() {
+				public void run() {
+					handle(client);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Bind a socket that only this user can connect to.  The socket is
+	 * bound in a new directory only this user can enter, its permissions
+	 * are restricted, and only then is it moved to <code>path</code>.
+	 */
+	private static ServerSocketChannel bind(Path path) throws IOException {
+		ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		Path dir;
+		try {
+			dir = Files.createTempDirectory(path.toAbsolutePath().getParent(), ".id3iconv",
+					PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+		} catch (UnsupportedOperationException e) {
+			// not a POSIX file system
+			server.bind(UnixDomainSocketAddress.of(path));
+			return server;
+		}
+		Path bound = dir.resolve("socket");
+		try {
+			server.bind(UnixDomainSocketAddress.of(bound));
+			Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));
+			Files.move(bound, path, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			server.close();
+			Files.deleteIfExists(bound);
+			throw e;
+		} finally {
+			Files.delete(dir);
+		}
+		return server;
+	}
+
+	private static boolean isListening(UnixDomainSocketAddress address) {
+		try {
+			SocketChannel.open(address).close();
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Read one request, run it and send back its output and exit status
+	 */
+	private void handle(SocketChannel client) {
+		try {
+			InputStream in = Channels.newInputStream(client);
+			ByteArrayOutputStream request = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int len;
+			while ((len = in.read(buf)) > 0)
+				request.write(buf, 0, len);
+			List<String> args = split(request.toByteArray());
+
+			OutputStream raw = new BufferedOutputStream(Channels.newOutputStream(client));
+			LineChannel outChannel = new LineChannel(raw, '1');
+			LineChannel errChannel = new LineChannel(raw, '2');
+			PrintStream out = new PrintStream(outChannel, true);
+			PrintStream err = new PrintStream(errChannel, true);
+			int status;
+			if (args.isEmpty()) {
+				err.println("Empty request");
+				status = -1;
+			} else if (args.contains("--daemon") || args.contains("--watch")) {
+				// --watch would keep a client thread until the daemon dies
+				err.println((args.contains("--daemon") ? "--daemon" : "--watch")
+						+" cannot be used through a client");
+				status = -1;
+			} else try {
+				File cwd = new File(args.remove(0));
+				status = ID3iconv.run(args.toArray(new String[args.size()]), cwd, null, out, err);
+			} catch (Exception e) {
+				e.printStackTrace(err);
+				status = -1;
+			}
+			out.flush();
+			err.flush();
+			outChannel.close();
+			errChannel.close();
+			synchronized (raw) {
+				raw.write(("x"+status+"\n").getBytes("US-ASCII"));
+				raw.flush();
+			}
+		} catch (IOException e) {
+			// the client went away
+		} finally {
+			try {
+				client.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * @return The NUL terminated strings of <code>request</code>
+	 */
+	private List<String> split(byte[] request) {
+		List<String> strings = new ArrayList<String>();
+		int start = 0;
+		for (int i = 0; i < request.length; i++) {
+			if (request[i] == 0) {
+				strings.add(new String(request, start, i - start, charset));
+				start = i + 1;
+			}
+		}
+		return strings;
+	}
+
+	/**
+	 * Sends the lines written to it on one channel of a response.  Only whole
+	 * lines are sent, so lines of the two channels never get mixed up.
+	 */
+	private static class LineChannel extends OutputStream {
+		private final OutputStream raw;
+		private final int channel;
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		LineChannel(OutputStream raw, int channel) {
+			this.raw = raw;
+			this.channel = channel;
+		}
+
+		public synchronized void write(int b) throws IOException {
+			line.write(b);
+			if (b == '\n')
+				send();
+		}
+
+		public synchronized void flush() throws IOException {
+			synchronized (raw) {
+				raw.flush();
+			}
+		}
+
+		/**
+		 * Send what is left of the last line
+		 */
+		public synchronized void close() throws IOException {
+			if (line.size() > 0) {
+				line.write('\n');
+				send();
+			}
+		}
+
+		private void send() throws IOException {
+			synchronized (raw) {
+				raw.write(channel);
+				line.writeTo(raw);
+			}
+			line.reset();
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package net.zhoufeng;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts files with separate concurrency limits for every device.
+ * <p>
+ * Each file is assigned to the <code>FileStore</code> it lives on.  Every
+ * store has two lanes with their own queue and limit: one for reading the
+ * tags, one for writing the changes back.  A busy disk therefore only holds
+ * up its own files, while conversions on idle disks keep going, and the
+ * short reads of probing are not stuck behind long rewrites of whole files.
+ * <p>
+ * No thread waits for a busy lane: work is queued on the lane and handed
+ * to the shared thread pool as soon as one of the lane's slots is free.
+ * <p>
+ * The device of at most <code>MAX_DIRECTORIES</code> directories is
+ * remembered, the one used least recently being forgotten first, so that a
+ * long-running <code>--watch</code> or <code>--daemon</code> does not grow
+ * without bound.
+ */
+class DeviceScheduler extends BatchConverter {
+
+	/** Directories whose device is remembered */
+	static final int MAX_DIRECTORIES = 1024;
+
+	private final int readers;
+	private final int writers;
+	private final ExecutorService pool = Executors.newCachedThreadPool();
+	private final Semaphore pending;
+	private final int pendingLimit;
+
+	/** Device by directory, least recently used first; guarded by itself */
+	private final Map<Path, Device> directories = new LinkedHashMap<Path, Device>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(Map.Entry<Path, Device> eldest) {
+			return size() > MAX_DIRECTORIES;
+		}
+	};
+	/** All devices, by file store */
+	private final ConcurrentHashMap<FileStore, Device> devices = new ConcurrentHashMap<FileStore, Device>();
+
+	/**
+	 * @param encoder Converter shared by all workers
+	 * @param readers Files read from a device at the same time
+	 * @param writers Files written to a device at the same time
+	 * @param pending Files queued or in flight on all devices together
+	 */
+	DeviceScheduler(ID3iconv encoder, int readers, int writers, int pending) {
+		super(encoder, null, 0, 0);
+		concurrent = true;
+		this.readers = readers;
+		this.writers = writers;
+		this.pending = new Semaphore(pending);
+		this.pendingLimit = pending;
+	}
+
+	void dispatch(File file, BasicFileAttributes attrs) throws InterruptedException {
+		final Conversion c = new Conversion(file, attrs);
+		final Device device;
+		try {
+			device = device(file.toPath());
+		} catch (IOException e) {
+			failed(c, e);
+			return;
+		}
+		pending.acquire();
+		device.read.submit(new Runnable() {
+			public void run() {
+				try {
+					encoder.parse(c);
+					encoder.transcode(c);
+				} catch (Exception e) {
+					done(c, e);
+					return;
+				}
+				if (!c.needsWrite()) {
+					done(c, null);
+					return;
+				}
+				device.write.submit(new Runnable() {
+					public void run() {
+						try {
+							encoder.write(c);
+						} catch (Exception e) {
+							done(c, e);
+							return;
+						}
+						done(c, null);
+					}
+				});
+			}
+		});
+	}
+
+	void drain() {
+		try {
+			// all permits are back once the last conversion is done
+			pending.acquire(pendingLimit);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		pool.shutdown();
+		try {
+			pool.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		super.drain();
+	}
+
+	void printSummary() {
+		super.printSummary();
+		List<String> lines = new ArrayList<String>();
+		for (Device device : devices.values()) {
+			lines.add("  "+device.name+": "+device.read.done+" read, "
+					+device.write.done+" written");
+		}
+		Collections.sort(lines);
+		encoder.info("Devices ("+readers+" readers, "+writers+" writers each):");
+		for (String line : lines)
+			encoder.info(line);
+	}
+
+	private void done(Conversion c, Exception e) {
+		if (e != null)
+			failed(c, e);
+		else
+			completed(c);
+		pending.release();
+	}
+
+	/**
+	 * Find the device of <code>file</code>.  Only the first file of every
+	 * directory costs a file store lookup.
+	 */
+	private Device device(Path file) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Device device;
+		synchronized (directories) {
+			device = directories.get(dir);
+		}
+		if (device == null) {
+			FileStore store = Files.getFileStore(dir);
+			device = devices.get(store);
+			if (device == null) {
+				device = new Device(store.toString());
+				Device old = devices.putIfAbsent(store, device);
+				if (old != null)
+					device = old;
+				else
+					encoder.debug("New device: "+device.name);
+			}
+			synchronized (directories) {
+				directories.put(dir, device);
+			}
+		}
+		return device;
+	}
+
+	private class Device {
+		final String name;
+		final Lane read = new Lane(readers);
+		final Lane write = new Lane(writers);
+
+		Device(String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Queue of work for one device that runs at most <code>limit</code>
+	 * tasks on the pool at the same time
+	 */
+	private class Lane {
+		private final int limit;
+		private final ArrayDeque<Runnable> queue = new ArrayDeque<Runnable>();
+		private int running;
+		final AtomicLong done = new AtomicLong();
+
+		Lane(int limit) {
+			this.limit = limit;
+		}
+
+		synchronized void submit(Runnable task) {
+			if (running < limit) {
+				running++;
+				execute(task);
+			} else {
+				queue.add(task);
+			}
+		}
+
+		private void execute(final Runnable task) {
+			pool.execute(new Runnable() {
+				public void run() {
+					try {
+						task.run();
+					} finally {
+						done.incrementAndGet();
+						next();
+					}
+				}
+			});
+		}
+
+		private synchronized void next() {
+			Runnable task = queue.poll();
+			if (task != null)
+				execute(task);
+			else
+				running--;
+		}
+	}
+}
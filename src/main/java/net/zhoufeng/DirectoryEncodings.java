@@ -0,0 +1,214 @@
+package net.zhoufeng;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Source encoding of <code>-e auto</code>, decided once per directory.
+ * <p>
+ * The tracks of an album sit in one directory and were almost always tagged
+ * by the same program, in the same encoding.  The raw text of the first
+ * files of a directory is pooled into a sample, and the encoding detected
+ * over the whole sample becomes the decision for the directory: a larger
+ * sample is detected more reliably than the few bytes of a single tag.
+ * Until then, every file is detected on its own.  Afterwards, a file only
+ * has to decode without error in the encoding of its directory; one that
+ * does not is detected on its own, so a stray track from another source is
+ * still converted right.
+ * <p>
+ * Text that is pure ASCII reads the same in every candidate: it neither
+ * counts for the sample nor needs detecting.  Files detected on their own
+ * with a confidence below <code>UNCERTAIN</code> are counted, as a hint to
+ * check them or narrow down the candidates.
+ * <p>
+ * At most <code>MAX_DIRECTORIES</code> directories are remembered.  The one
+ * used least recently is forgotten first, together with its sample, so that
+ * a long-running <code>--watch</code> or <code>--daemon</code> does not
+ * grow without bound; a directory seen again is sampled anew.
+ */
+class DirectoryEncodings {
+
+	/** Files of a directory pooled before the encoding is decided */
+	static final int SAMPLE_FILES = 3;
+
+	/** Bytes of raw text pooled at most before the encoding is decided */
+	static final int SAMPLE_BYTES = 4096;
+
+	/** Detections less confident than this are counted as uncertain */
+	static final double UNCERTAIN = 0.9;
+
+	/** Directories remembered at most */
+	static final int MAX_DIRECTORIES = 1024;
+
+	private final EncodingDetector detector;
+	/** Directory by path, least recently used first; guarded by itself */
+	private final Map<File, Directory> directories = new LinkedHashMap<File, Directory>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(Map.Entry<File, Directory> eldest) {
+			return size() > MAX_DIRECTORIES;
+		}
+	};
+	private final LongAdder decided = new LongAdder();
+	private final LongAdder fromDirectory = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+	private final LongAdder uncertain = new LongAdder();
+	private final ConcurrentHashMap<String, LongAdder> chosen = new ConcurrentHashMap<String, LongAdder>();
+
+	/** Result for text that is pure ASCII, outside of a decided directory */
+	private final EncodingDetector.Detection ascii;
+
+	DirectoryEncodings(EncodingDetector detector) {
+		this.detector = detector;
+		this.ascii = new EncodingDetector.Detection(detector.first(), 1);
+	}
+
+	/**
+	 * @param file File the text was read from
+	 * @param texts Raw text of the tags of <code>file</code>
+	 * @return Charset to decode <code>texts</code> with
+	 */
+	EncodingDetector.Detection encodingOf(File file, List<byte[]> texts) {
+		Directory dir = directory(file);
+		if (EncodingDetector.isAscii(texts)) {
+			EncodingDetector.Detection decision = dir.decision;
+			return decision != null ? decision : ascii;
+		}
+
+		EncodingDetector.Detection decision = dir.decision;
+		if (decision == null)
+			decision = dir.add(texts);
+		if (decision != null) {
+			if (detector.isValid(decision.charset, texts)) {
+				fromDirectory.increment();
+				return count(decision);
+			}
+			fallbacks.increment();
+		}
+		EncodingDetector.Detection own = detector.detect(texts);
+		if (own.confidence < UNCERTAIN)
+			uncertain.increment();
+		return count(own);
+	}
+
+	/**
+	 * @return Names of the candidate charsets
+	 */
+	String candidates() {
+		return detector.candidates();
+	}
+
+	/**
+	 * @return Number of directories whose encoding is decided
+	 */
+	long decided() {
+		return decided.sum();
+	}
+
+	/**
+	 * @return Number of files decoded in the encoding of their directory
+	 */
+	long fromDirectory() {
+		return fromDirectory.sum();
+	}
+
+	/**
+	 * @return Number of files that did not decode in the encoding of their
+	 *         directory and were detected on their own
+	 */
+	long fallbacks() {
+		return fallbacks.sum();
+	}
+
+	/**
+	 * @return Number of files detected on their own with a confidence below
+	 *         <code>UNCERTAIN</code>
+	 */
+	long uncertain() {
+		return uncertain.sum();
+	}
+
+	/**
+	 * @return One line with the directories decided, the files decoded
+	 *         without detection and the charsets chosen
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Encodings: ");
+		sb.append(decided()).append(" directories decided, ")
+			.append(fromDirectory()).append(" files by directory, ")
+			.append(fallbacks()).append(" detected on their own, ")
+			.append(uncertain()).append(" uncertain");
+		Map<String, LongAdder> sorted = new TreeMap<String, LongAdder>(chosen);
+		String separator = "; ";
+		for (Iterator<Map.Entry<String, LongAdder>> iter = sorted.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<String, LongAdder> e = iter.next();
+			sb.append(separator).append(e.getKey()).append(' ').append(e.getValue().sum());
+			separator = ", ";
+		}
+		return sb.toString();
+	}
+
+	private Directory directory(File file) {
+		File parent = file.getAbsoluteFile().getParentFile();
+		synchronized (directories) {
+			Directory dir = directories.get(parent);
+			if (dir == null) {
+				dir = new Directory();
+				directories.put(parent, dir);
+			}
+			return dir;
+		}
+	}
+
+	private EncodingDetector.Detection count(EncodingDetector.Detection detection) {
+		LongAdder n = chosen.get(detection.charset);
+		if (n == null) {
+			LongAdder created = new LongAdder();
+			n = chosen.putIfAbsent(detection.charset, created);
+			if (n == null)
+				n = created;
+		}
+		n.increment();
+		return detection;
+	}
+
+	/**
+	 * Sample and decision of one directory
+	 */
+	private class Directory {
+		/** Encoding detected over the sample, null while sampling */
+		volatile EncodingDetector.Detection decision;
+		/** Raw text pooled so far, null once decided */
+		private List<byte[]> sample = new ArrayList<byte[]>();
+		private int files;
+		private int bytes;
+
+		/**
+		 * Add the text of a file to the sample, and decide the encoding
+		 * once the sample is large enough
+		 *
+		 * @return The decided encoding, or null if still sampling
+		 */
+		synchronized EncodingDetector.Detection add(List<byte[]> texts) {
+			if (decision != null)
+				return decision;
+			for (byte[] text : texts) {
+				sample.add(text);
+				bytes += text.length;
+			}
+			if (++files >= SAMPLE_FILES || bytes >= SAMPLE_BYTES) {
+				decision = detector.detect(sample);
+				sample = null;
+				decided.increment();
+			}
+			return decision;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package net.zhoufeng;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+
+/**
+ * Walks a directory tree and submits every mp3 file to a
+ * <code>BatchConverter</code> as soon as it is found.
+ * <p>
+ * Nothing is collected up front: since <code>BatchConverter.submit</code>
+ * blocks while the workers are busy, the walk only ever runs a few files
+ * ahead of the conversions.  The attributes read by the walk are handed on
+ * with every file, so its length does not need to be queried again.
+ */
+class DirectoryWalker extends SimpleFileVisitor<Path> {
+
+	private static final String EXTENSION = ".mp3";
+
+	private final BatchConverter batch;
+	private final Path root;
+	private final ShardFilter shard;
+
+	private DirectoryWalker(BatchConverter batch, Path root, ShardFilter shard) {
+		this.batch = batch;
+		this.root = root;
+		this.shard = shard;
+	}
+
+	/**
+	 * Submit all mp3 files below <code>dir</code>.  Symbolic links are followed.
+	 *
+	 * @param dir Directory to walk
+	 * @param batch Receives the files
+	 * @exception IOException If the walk is interrupted or <code>dir</code>
+	 *            cannot be read
+	 */
+	static void walk(Path dir, BatchConverter batch)
+		throws IOException {
+		walk(dir, batch, null);
+	}
+
+	/**
+	 * Submit the mp3 files below <code>dir</code> that belong to <code>shard</code>
+	 *
+	 * @param dir Directory to walk
+	 * @param batch Receives the files
+	 * @param shard Selects the files to submit, or null for all of them
+	 * @exception IOException If the walk is interrupted or <code>dir</code>
+	 *            cannot be read
+	 */
+	static void walk(Path dir, BatchConverter batch, ShardFilter shard)
+		throws IOException {
+		Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+				Integer.MAX_VALUE, new DirectoryWalker(batch, dir, shard));
+	}
+
+	/**
+	 * @return true if the file name has an mp3 extension, in any case
+	 */
+	static boolean isMp3(Path file) {
+		String name = file.getFileName().toString();
+		return name.regionMatches(true, name.length() - EXTENSION.length(),
+				EXTENSION, 0, EXTENSION.length());
+	}
+
+	public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+		throws IOException {
+		if (attrs.isRegularFile() && isMp3(file)
+				&& (shard == null || shard.accepts(root, file))) {
+			try {
+				batch.submit(file.toFile(), attrs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while walking "+file);
+			}
+		}
+		return FileVisitResult.CONTINUE;
+	}
+
+	public FileVisitResult visitFileFailed(Path file, IOException e) {
+		batch.encoder.error("Cannot read "+file+": "+e);
+		return FileVisitResult.CONTINUE;
+	}
+
+	public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+		if (e != null)
+			batch.encoder.error("Cannot list "+dir+": "+e);
+		return FileVisitResult.CONTINUE;
+	}
+}
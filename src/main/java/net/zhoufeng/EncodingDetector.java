@@ -0,0 +1,580 @@
+package net.zhoufeng;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Guesses the charset of the raw text of a tag among a list of candidates.
+ * <p>
+ * Every candidate has a model that scores the text byte pair by byte pair:
+ * a double-byte charset by the region of its table each character falls
+ * in (common and rare characters, symbols, unassigned), a single-byte
+ * charset by the letter each byte stands for and the letter before it
+ * (letter frequencies, case changes inside a word, mixed scripts).  Scores
+ * are in bits against random bytes, so that they compare across charsets
+ * with one and with two bytes per character; a sequence a charset cannot
+ * hold rules the candidate out.  All models are fed in a single pass over
+ * the text, and no text is decoded to a String.
+ * <p>
+ * The best candidate is then validated with a strict decoder, the next one
+ * if it fails.  Its confidence is its share of the likelihood of all
+ * candidates still in the race.  Candidates listed first are slightly
+ * preferred, so that text which is pure ASCII, and reads the same in every
+ * candidate, goes to the first one.
+ */
+class EncodingDetector {
+
+	/** Candidates of <code>-e auto</code> unless others are given */
+	static final String[] DEFAULT_CANDIDATES = {
+		"GBK", "Big5", "Shift_JIS", "EUC-KR", "windows-1251", "KOI8-R", "windows-1252"
+	};
+
+	/** Bits a candidate loses for each candidate listed before it */
+	private static final double PRIOR_STEP = 0.5;
+
+	/** Score of a byte sequence a model cannot hold */
+	private static final double INVALID = Double.NaN;
+
+	private final Charset[] candidates;
+	private final Model[] models;
+	/** Strict decoders not in use right now, shared by all threads */
+	private final ConcurrentLinkedQueue<Validator> validators = new ConcurrentLinkedQueue<Validator>();
+
+	/**
+	 * @param names Candidate charsets, most likely first.  Charsets the JVM
+	 *        does not support are left out.
+	 * @exception IllegalArgumentException If no candidate is supported
+	 */
+	EncodingDetector(String[] names) {
+		List<Charset> supported = new ArrayList<Charset>();
+		for (String name : names) {
+			try {
+				Charset charset = Charset.forName(name.trim());
+				if (!supported.contains(charset))
+					supported.add(charset);
+			} catch (IllegalArgumentException e) {
+				// unknown or unsupported, leave out
+			}
+		}
+		if (supported.isEmpty())
+			throw new IllegalArgumentException("No supported charset among the candidates");
+		candidates = supported.toArray(new Charset[supported.size()]);
+		models = new Model[candidates.length];
+		for (int i = 0; i < candidates.length; i++)
+			models[i] = model(candidates[i]);
+	}
+
+	/**
+	 * @return Name of the candidate listed first
+	 */
+	String first() {
+		return candidates[0].name();
+	}
+
+	/**
+	 * @return Names of the candidates, separated by commas
+	 */
+	String candidates() {
+		StringBuilder sb = new StringBuilder();
+		for (Charset candidate : candidates) {
+			if (sb.length() > 0)
+				sb.append(", ");
+			sb.append(candidate.name());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param texts Raw text of a tag, or of several tags
+	 * @return Most likely charset of <code>texts</code>
+	 */
+	Detection detect(List<byte[]> texts) {
+		int n = candidates.length;
+		double[] scores = new double[n];
+		int[] states = new int[n];
+		for (int i = 0; i < n; i++)
+			scores[i] = -PRIOR_STEP * i;
+
+		for (byte[] text : texts) {
+			for (int i = 0; i < n; i++)
+				states[i] = 0;
+			for (int k = 0; k < text.length; k++) {
+				int b = text[k] & 0xff;
+				for (int i = 0; i < n; i++) {
+					if (scores[i] == scores[i])		// not ruled out, that is not NaN
+						scores[i] += models[i].next(states, i, b);
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				if (states[i] < 0)		// lead byte without trail byte
+					scores[i] = INVALID;
+			}
+		}
+
+		// best candidate that passes strict decoding
+		for (;;) {
+			int best = -1;
+			for (int i = 0; i < n; i++) {
+				if (scores[i] == scores[i] && (best < 0 || scores[i] > scores[best]))
+					best = i;
+			}
+			if (best < 0)
+				return new Detection(candidates[0].name(), 0);
+			if (!isValid(best, null, texts)) {
+				scores[best] = INVALID;
+				continue;
+			}
+			double sum = 0;
+			for (int i = 0; i < n; i++) {
+				if (scores[i] == scores[i])
+					sum += Math.pow(2, Math.max(scores[i] - scores[best], -64));
+			}
+			return new Detection(candidates[best].name(), 1 / sum);
+		}
+	}
+
+	/**
+	 * @return true if <code>charset</code> decodes all of <code>texts</code>
+	 *         without error
+	 */
+	boolean isValid(String charset, List<byte[]> texts) {
+		for (int i = 0; i < candidates.length; i++) {
+			if (candidates[i].name().equals(charset))
+				return isValid(i, null, texts);
+		}
+		// not a candidate, decoded once
+		return isValid(-1, strict(Charset.forName(charset)), texts);
+	}
+
+	/**
+	 * @return true if <code>texts</code> has no byte outside of ASCII
+	 */
+	static boolean isAscii(List<byte[]> texts) {
+		for (byte[] text : texts) {
+			for (byte b : text) {
+				if (b < 0)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decode <code>texts</code> strictly and drop the result
+	 *
+	 * @param i Candidate to decode with, or -1 to use <code>decoder</code>
+	 */
+	private boolean isValid(int i, CharsetDecoder decoder, List<byte[]> texts) {
+		Validator validator = validators.poll();
+		if (validator == null)
+			validator = new Validator();
+		try {
+			if (i >= 0) {
+				if (validator.decoders[i] == null)
+					validator.decoders[i] = strict(candidates[i]);
+				decoder = validator.decoders[i];
+			}
+			for (byte[] text : texts) {
+				CharBuffer chars = validator.chars(
+						(int) Math.ceil(text.length * decoder.maxCharsPerByte()));
+				decoder.reset();
+				ByteBuffer in = ByteBuffer.wrap(text);
+				CoderResult result = decoder.decode(in, chars, true);
+				if (!result.isError())
+					result = decoder.flush(chars);
+				if (result.isError() || in.hasRemaining())
+					return false;
+			}
+			return true;
+		} finally {
+			validators.offer(validator);
+		}
+	}
+
+	private static CharsetDecoder strict(Charset charset) {
+		return charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+	}
+
+	/**
+	 * @return Score in bits of a character that is one of <code>count</code>
+	 *         in a class making up <code>share</code> of all text, against
+	 *         <code>bits</code> of random bytes
+	 */
+	private static double bits(double share, int count, int bits) {
+		return Math.log(share / count) / Math.log(2) + bits;
+	}
+
+	private static Model model(Charset charset) {
+		String name = charset.name();
+		if (name.equals("GBK") || name.equals("GB2312") || name.equals("GB18030")
+				|| name.equals("x-mswin-936"))
+			return new GbkModel();
+		if (name.equals("Big5") || name.equals("Big5-HKSCS") || name.equals("x-windows-950"))
+			return new Big5Model();
+		if (name.equals("Shift_JIS") || name.equals("windows-31j"))
+			return new ShiftJisModel();
+		if (name.equals("EUC-KR") || name.equals("x-windows-949"))
+			return new EucKrModel();
+		if (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1)
+			return new SingleByteModel(charset);
+		return new Model();
+	}
+
+	/**
+	 * Strict decoders of the candidates, created as they are first needed,
+	 * and a buffer for their output.  Used by one thread at a time; a
+	 * thread takes one from <code>validators</code> and puts it back, so
+	 * that there are no more of them than threads validating at once.
+	 */
+	private class Validator {
+		final CharsetDecoder[] decoders = new CharsetDecoder[candidates.length];
+		private CharBuffer chars = CharBuffer.allocate(256);
+
+		/**
+		 * @return Empty buffer with room for at least <code>length</code> chars
+		 */
+		CharBuffer chars(int length) {
+			if (chars.capacity() < length)
+				chars = CharBuffer.allocate(Math.max(length, 2 * chars.capacity()));
+			chars.clear();
+			return chars;
+		}
+	}
+
+	/**
+	 * Charset picked for a text, and how sure the pick is
+	 */
+	static class Detection {
+		final String charset;
+		/** Likelihood of <code>charset</code> relative to all candidates, 0 to 1 */
+		final double confidence;
+
+		Detection(String charset, double confidence) {
+			this.charset = charset;
+			this.confidence = confidence;
+		}
+
+		public String toString() {
+			return charset+" ("+Progress.format(confidence * 100)+"%)";
+		}
+	}
+
+	/**
+	 * Scores the bytes of a text for one candidate.  Models are shared by
+	 * all threads; the little state they keep from one byte to the next is
+	 * passed in <code>states[i]</code>, 0 at the start of every text.  This
+	 * one scores nothing and leaves the candidate to strict decoding.
+	 */
+	static class Model {
+		/**
+		 * @return Score of byte <code>b</code> in bits, or INVALID
+		 */
+		double next(int[] states, int i, int b) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Model of a charset with one or two bytes per character.  The state is
+	 * the pending lead byte, negated.
+	 */
+	abstract static class DoubleByteModel extends Model {
+		/** Character of an assigned but rarely used region */
+		static final double RARE = bits(0.0005, 14000, 14);
+		/** Character of an unassigned or user-defined region */
+		static final double UNASSIGNED = -14;
+
+		double next(int[] states, int i, int b) {
+			int lead = -states[i];
+			if (lead > 0) {
+				states[i] = 0;
+				if (!isTrail(b))
+					return INVALID;
+				// an ASCII trail byte is more likely than a random one
+				return b < 0x80 ? pair(lead, b) - 1 : pair(lead, b);
+			}
+			if (b < 0x80)
+				return 0;
+			if (isLead(b)) {
+				states[i] = -b;
+				return 0;
+			}
+			return single(b);
+		}
+
+		abstract boolean isLead(int b);
+
+		abstract boolean isTrail(int b);
+
+		/**
+		 * @return Score of the character of two bytes
+		 */
+		abstract double pair(int lead, int trail);
+
+		/**
+		 * @return Score of a byte above ASCII that stands alone
+		 */
+		double single(int b) {
+			return INVALID;
+		}
+	}
+
+	/** GBK, a superset of GB2312: simplified Chinese */
+	static class GbkModel extends DoubleByteModel {
+		static final double LEVEL1 = bits(0.97, 3755, 14);
+		static final double LEVEL2 = bits(0.01, 3008, 14);
+		static final double SYMBOL = bits(0.02, 682, 14);
+
+		boolean isLead(int b) {
+			return b >= 0x81 && b <= 0xfe;
+		}
+
+		boolean isTrail(int b) {
+			return b >= 0x40 && b <= 0xfe && b != 0x7f;
+		}
+
+		double pair(int lead, int trail) {
+			if (trail < 0xa1)
+				return RARE;			// GBK extension
+			if (lead >= 0xb0 && lead <= 0xd7)
+				return LEVEL1;
+			if (lead >= 0xd8 && lead <= 0xf7)
+				return LEVEL2;
+			if (lead >= 0xa1 && lead <= 0xa9)
+				return SYMBOL;
+			if (lead >= 0xaa && lead <= 0xaf || lead >= 0xf8)
+				return UNASSIGNED;		// user-defined
+			return RARE;
+		}
+	}
+
+	/** Big5: traditional Chinese */
+	static class Big5Model extends DoubleByteModel {
+		static final double LEVEL1 = bits(0.97, 5401, 14);
+		static final double LEVEL2 = bits(0.01, 7652, 14);
+		static final double SYMBOL = bits(0.02, 408, 14);
+
+		boolean isLead(int b) {
+			return b >= 0xa1 && b <= 0xf9;
+		}
+
+		boolean isTrail(int b) {
+			return b >= 0x40 && b <= 0x7e || b >= 0xa1 && b <= 0xfe;
+		}
+
+		double pair(int lead, int trail) {
+			if (lead <= 0xa3)
+				return SYMBOL;
+			if (lead < 0xc6 || lead == 0xc6 && trail <= 0x7e)
+				return LEVEL1;
+			if (lead >= 0xc9)
+				return LEVEL2;
+			return UNASSIGNED;
+		}
+	}
+
+	/** Shift_JIS: Japanese */
+	static class ShiftJisModel extends DoubleByteModel {
+		static final double HIRAGANA = bits(0.40, 83, 14);
+		static final double KATAKANA = bits(0.10, 86, 14);
+		static final double LEVEL1 = bits(0.44, 2965, 14);
+		static final double LEVEL2 = bits(0.01, 3390, 14);
+		static final double SYMBOL = bits(0.04, 188, 14);
+		static final double OTHER = bits(0.005, 300, 14);
+		static final double HALFWIDTH = bits(0.005, 63, 7);
+
+		boolean isLead(int b) {
+			return b >= 0x81 && b <= 0x9f || b >= 0xe0 && b <= 0xfc;
+		}
+
+		boolean isTrail(int b) {
+			return b >= 0x40 && b <= 0xfc && b != 0x7f;
+		}
+
+		double pair(int lead, int trail) {
+			if (lead == 0x81)
+				return SYMBOL;
+			if (lead == 0x82)
+				return trail >= 0x9f ? HIRAGANA : OTHER;
+			if (lead == 0x83)
+				return trail <= 0x96 ? KATAKANA : OTHER;
+			if (lead == 0x84)
+				return OTHER;
+			if (lead == 0x88 && trail >= 0x9f || lead > 0x88 && lead < 0x98
+					|| lead == 0x98 && trail <= 0x72)
+				return LEVEL1;
+			if (lead == 0x98 && trail >= 0x9f || lead > 0x98 && lead <= 0xea)
+				return LEVEL2;
+			if (lead == 0x87 || lead == 0xed || lead == 0xee || lead >= 0xfa)
+				return RARE;			// vendor extensions
+			return UNASSIGNED;
+		}
+
+		double single(int b) {
+			return b >= 0xa1 && b <= 0xdf ? HALFWIDTH : INVALID;
+		}
+	}
+
+	/** EUC-KR: Korean */
+	static class EucKrModel extends DoubleByteModel {
+		static final double HANGUL = bits(0.95, 2350, 14);
+		static final double HANJA = bits(0.01, 4888, 14);
+		static final double SYMBOL = bits(0.04, 1100, 14);
+
+		boolean isLead(int b) {
+			return b >= 0xa1 && b <= 0xfe;
+		}
+
+		boolean isTrail(int b) {
+			return b >= 0xa1 && b <= 0xfe;
+		}
+
+		double pair(int lead, int trail) {
+			if (lead >= 0xb0 && lead <= 0xc8)
+				return HANGUL;
+			if (lead >= 0xca && lead <= 0xfd)
+				return HANJA;
+			if (lead <= 0xac)
+				return SYMBOL;
+			return UNASSIGNED;
+		}
+	}
+
+	/**
+	 * Model of any single-byte charset, built from its table.  A byte is
+	 * scored by the letter it stands for, Cyrillic by Russian letter
+	 * frequencies, and penalized if it follows a letter of another script,
+	 * if it is an upper case letter after a lower case one, or if it is an
+	 * accented Latin letter after another one.  The state is the class of
+	 * the previous byte.
+	 */
+	static class SingleByteModel extends Model {
+		private static final double MIXED_SCRIPTS = -6;
+		private static final double CASE_CHANGE = -5;
+		private static final double ACCENT_RUN = -4;
+		private static final double LOWER = 0.8;
+		private static final double UPPER = 0.2;
+
+		/** Share of the letters of Russian text, from U+0430 to U+044F */
+		private static final double[] RUSSIAN = {
+			.080, .016, .045, .017, .030, .085, .009, .016, .074, .012, .035, .044, .032,
+			.067, .110, .028, .047, .055, .063, .026, .003, .010, .005, .014, .007, .004,
+			.0004, .019, .017, .003, .006, .020
+		};
+
+		/** Most frequent accented letters of Western European languages */
+		private static final String ACCENTS =
+			"\u00e9\u00e8\u00e0\u00fc\u00f6\u00e4\u00df\u00f1\u00e7\u00e1"
+			+"\u00f3\u00ed\u00fa\u00ea\u00e2\u00f4\u00e3\u00e5\u00f8\u00e6";
+
+		// classes: script, plus 1 for upper case
+		private static final int NONE = 0;
+		private static final int ASCII = 2;
+		private static final int ACCENTED = 4;
+		private static final int CYRILLIC = 6;
+		private static final int OTHER = 8;
+
+		private final double[] scores = new double[256];
+		private final int[] classes = new int[256];
+
+		SingleByteModel(Charset charset) {
+			CharsetDecoder decoder = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT);
+			for (int b = 0; b < 256; b++) {
+				CharBuffer c;
+				try {
+					c = decoder.decode(ByteBuffer.wrap(new byte[] {(byte) b}));
+				} catch (CharacterCodingException e) {
+					c = null;
+				}
+				if (c == null || c.remaining() != 1) {
+					scores[b] = INVALID;
+					continue;
+				}
+				classes[b] = classOf(c.get(0));
+				if (b >= 0x80)
+					scores[b] = score(c.get(0));
+			}
+		}
+
+		double next(int[] states, int i, int b) {
+			int prev = states[i];
+			int cls = classes[b];
+			states[i] = cls;
+			double score = scores[b];
+			// ASCII after ASCII is the same in every candidate
+			if (prev == NONE || cls == NONE || b < 0x80 && prev < ACCENTED)
+				return score;
+			int script = cls & ~1, prevScript = prev & ~1;
+			if (script != prevScript && !(script <= ACCENTED && prevScript <= ACCENTED))
+				score += MIXED_SCRIPTS;
+			if ((cls & 1) != 0 && (prev & 1) == 0)
+				score += CASE_CHANGE;
+			if (script == ACCENTED && prevScript == ACCENTED)
+				score += ACCENT_RUN;
+			return score;
+		}
+
+		private static int classOf(char c) {
+			if (!Character.isLetter(c))
+				return NONE;
+			int upper = Character.isUpperCase(c) ? 1 : 0;
+			if (c < 0x80)
+				return ASCII | upper;
+			Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+			if (block == Character.UnicodeBlock.CYRILLIC)
+				return CYRILLIC | upper;
+			if (block == Character.UnicodeBlock.LATIN_1_SUPPLEMENT
+					|| block == Character.UnicodeBlock.LATIN_EXTENDED_A
+					|| block == Character.UnicodeBlock.LATIN_EXTENDED_B)
+				return ACCENTED | upper;
+			return OTHER | upper;
+		}
+
+		/**
+		 * @return Score of a byte above ASCII that stands for <code>c</code>
+		 */
+		private static double score(char c) {
+			int cls = classOf(c);
+			double letterCase = (cls & 1) != 0 ? UPPER : LOWER;
+			char lower = Character.toLowerCase(c);
+			switch (cls & ~1) {
+			case CYRILLIC:
+				if (lower >= '\u0430' && lower <= '\u044f')
+					return bits(RUSSIAN[lower - '\u0430'] * letterCase, 1, 7);
+				if (lower == '\u0451' || lower == '\u0456')		// yo, Ukrainian i
+					return bits(0.02 * letterCase, 1, 7);
+				return bits(0.002 * letterCase, 1, 7);
+			case ACCENTED:
+				if (ACCENTS.indexOf(lower) >= 0)
+					return bits(0.05 * letterCase, 1, 7);
+				return bits(0.005 * letterCase, 1, 7);
+			case OTHER:
+				return bits(0.001, 1, 7);
+			default:
+				switch (Character.getType(c)) {
+				case Character.INITIAL_QUOTE_PUNCTUATION:
+				case Character.FINAL_QUOTE_PUNCTUATION:
+				case Character.DASH_PUNCTUATION:
+				case Character.SPACE_SEPARATOR:
+					return bits(0.02, 1, 7);
+				case Character.CONTROL:
+					return bits(0.0001, 1, 7);
+				default:
+					return bits(0.002, 1, 7);
+				}
+			}
+		}
+	}
+}
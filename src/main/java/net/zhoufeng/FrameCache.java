@@ -0,0 +1,144 @@
+package net.zhoufeng;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Text frames already transcoded, by source encoding and original content.
+ * <p>
+ * The tracks of an album share most of their text frames byte for byte:
+ * album, artists, genre, year.  Looking up the new content of such a frame
+ * saves decoding and encoding it again, and the arrays that takes.  The
+ * arrays in the cache are shared by every frame that gets them, so they
+ * must never be modified.
+ * <p>
+ * The cache is bounded by the bytes of the frames it holds, original and
+ * transcoded.  When it is full, the frames added first are evicted first:
+ * a run over a library moves from album to album, so old entries are
+ * rarely needed again.  Lookups and additions take no locks.
+ */
+class FrameCache {
+
+	/** Frames larger than this are not cached, in bytes */
+	static final int MAX_FRAME = 1024;
+
+	/** Bytes added to every entry for the key and the map, a rough estimate */
+	private static final int OVERHEAD = 96;
+
+	private final long capacity;
+	private final ConcurrentHashMap<Key, byte[]> frames = new ConcurrentHashMap<Key, byte[]>();
+	/** Keys in the order they were added, for eviction */
+	private final ConcurrentLinkedQueue<Key> order = new ConcurrentLinkedQueue<Key>();
+	private final AtomicLong size = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param capacity Bytes of frames held at most
+	 */
+	FrameCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return Transcoded content of a frame with <code>content</code> in
+	 *         <code>encoding</code>, or null if it is not cached
+	 */
+	byte[] get(String encoding, byte[] content) {
+		if (content.length > MAX_FRAME)
+			return null;
+		byte[] transcoded = frames.get(new Key(encoding, content));
+		if (transcoded != null)
+			hits.increment();
+		else
+			misses.increment();
+		return transcoded;
+	}
+
+	/**
+	 * Add a frame, evicting the oldest frames if the cache is full
+	 *
+	 * @param content Original content, must not be modified afterwards
+	 * @param transcoded New content, must not be modified afterwards
+	 */
+	void put(String encoding, byte[] content, byte[] transcoded) {
+		if (content.length > MAX_FRAME)
+			return;
+		Key key = new Key(encoding, content);
+		if (frames.putIfAbsent(key, transcoded) != null)
+			return;		// added by another worker in the meantime
+		order.add(key);
+		long total = size.addAndGet(key.cost(transcoded));
+		while (total > capacity) {
+			Key oldest = order.poll();
+			if (oldest == null)
+				break;
+			byte[] evicted = frames.remove(oldest);
+			if (evicted == null)
+				continue;
+			total = size.addAndGet(-oldest.cost(evicted));
+			evictions.increment();
+		}
+	}
+
+	long hits() {
+		return hits.sum();
+	}
+
+	long misses() {
+		return misses.sum();
+	}
+
+	long evictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return Bytes of frames held right now
+	 */
+	long size() {
+		return size.get();
+	}
+
+	/**
+	 * @return One line with hits, misses and hit rate
+	 */
+	public String toString() {
+		long h = hits(), m = misses();
+		return "Frame cache: "+h+" hits, "+m+" misses ("
+				+(h + m > 0 ? Progress.format(h * 100.0 / (h + m)) : "0")+"% hit rate), "
+				+evictions()+" evicted, "+size()+" of "+capacity+" bytes";
+	}
+
+	private static class Key {
+		final String encoding;
+		final byte[] content;
+		final int hash;
+
+		Key(String encoding, byte[] content) {
+			this.encoding = encoding;
+			this.content = content;
+			this.hash = 31 * encoding.hashCode() + Arrays.hashCode(content);
+		}
+
+		long cost(byte[] transcoded) {
+			return content.length + transcoded.length + OVERHEAD;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			return hash == k.hash && encoding.equals(k.encoding)
+					&& Arrays.equals(content, k.content);
+		}
+	}
+}
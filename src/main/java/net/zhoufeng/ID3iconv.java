@@ -1,389 +1,1187 @@
-/*
- * Created on 2003-8-23
- */
-package net.zhoufeng;
-
-import java.io.File;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Vector;
-
-import de.vdheide.mp3.ID3;
-import de.vdheide.mp3.ID3v2;
-import de.vdheide.mp3.ID3v2Frame;
-
-import org.apache.commons.io.FileUtils;
-
-/**
- * @author zf
- *
- */
-public class ID3iconv {
-
-	private static boolean isDebug;
-	private static boolean removev1;
-	private static boolean forcev1;
-	private static boolean quiet;
-	private static boolean dry;
-
-	private static HashSet NON_UNICODE_FIELDS = new HashSet();
-	private static String[] _NON_UNICODE_FIELDS = {
-		"TDAT", "TIME", "TPOS", "TRCK", "TYER"
-	};
-	
-	static {
-		for (int i = 0; i < _NON_UNICODE_FIELDS.length; i++)
-			NON_UNICODE_FIELDS.add(_NON_UNICODE_FIELDS[i]);
-	}
-
-	public static void main(String[] args) {
-		int opt = 0;
-		if (args.length == 0) {
-			usage();
-			return;			
-		}
-
-		String encoding = System.getProperty("file.encoding");
-		for (; opt < args.length; opt++) {
-			String s = args[opt];
-			if (s.equals("-e")) {
-				encoding = args[++opt];
-			} else if (s.equals("-p")) {
-				dry = true;
-			} else if (s.equals("-q")) {
-				quiet = true;
-			} else if (s.equals("-v1")) {
-				forcev1 = true;
-			} else if (s.equals("-removev1")) {
-				removev1 = true;
-			} else if (s.equals("-d")) {
-				isDebug = true;
-			} else if (s.startsWith("-")) {
-				error("Unknown option: "+s);
-				System.exit(-1);
-			} else {
-				break;
-			}
-		}
-
-		ID3iconv encoder = new ID3iconv();
-		info("Using source encoding: "+encoding);
-		for (int i = opt; i < args.length; i++) try {
-			info ("Converting "+args[i]);
-			File file = new File(args[i]);
-			if (file.isDirectory()) {
-			    Collection<File> files = FileUtils.listFiles(file, new String[] {"mp3"}, true);
-			    for (File f: files) {
-			        encoder.convert(f, encoding);
-			    }
-			} else {
-			    encoder.convert (file, encoding);
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-	}
-
-	/**
-	 * @param string
-	 */
-	private static void info(String string) {
-		if (!quiet) {
-			System.out.println(string);
-		}
-	}
-
-	ID3 id3;
-	ID3v2 id3v2;
-
-	
-	private void addFrame(String id, String content) throws Exception {
-		ID3v2Frame frame;
-		debug (id+": "+content);
-		byte[] newbuf = content.getBytes("UnicodeLittle");
-		if (newbuf.length == 0)
-			return;
-		byte[] newbuf2 = new byte[newbuf.length+3];
-		System.arraycopy(newbuf, 0, newbuf2, 1, newbuf.length);
-		newbuf2[newbuf2.length-2]=newbuf2[newbuf2.length-1]=0;
-		newbuf2[0] = 1;		// encoding: utf-16
-
-		frame = new ID3v2Frame (id, newbuf2,
-			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte)0, (byte)0);
-		id3v2.addFrame(frame);
-	}
-
-	/**
-	 * Convert the ID3 tag from any encoding to Unicode.  If the original file
-	 * contains ID3 v1 tags, it is converted to ID3v2 in order to support Unicode.
-	 * @param file
-	 */
-	private void convert(File file, String encoding) throws Exception{
-		id3 = new ID3(file);		// V1 tag
-		id3.encoding = encoding;
-		id3v2 = new ID3v2(file);	// V2 tag
-
-		boolean hasv1 = id3.checkForTag();
-		boolean hasv2 = id3v2.hasTag();
-		
-		if (hasv2 && !forcev1) try {
-			id3v2.getFrames();
-		} catch (Exception e) {
-			debug ("Cannot get v2 frames, assuming no v2 tag.");
-			hasv2 = false;
-		}
-		
-		if ((hasv1 && !hasv2) || (hasv1 && forcev1)) {
-			// convert ID3v1 to ID3v2
-			info ("Converting id3v1 tag to id3v2 Unicode format.");
-			if (hasv2 && forcev1) {
-				info("Warning: v1 tag use forced, original v2 tag overwritten.");
-			}
-			id3v2.clear();		// clear current v2 content, if it exists
-			addFrame("TALB", id3.getAlbum());
-			addFrame("TOPE", id3.getArtist());
-			addFrame("TPE1", id3.getArtist());
-			addFrame("COMM", id3.getComment());
-			addFrame("TIT2", id3.getTitle());
-			addFrame("TORY", id3.getYear());
-			int i = id3.getGenre();
-			if (i >= 0 && i < genreString.length)
-				addFrame("TCON", genreString[i]);
-			else
-				addFrame("TCON", "unknown");
-			addFrame("TRCK", id3.getTrack()+"");
-			if (!dry && removev1) 
-				id3.removeTag();
-			if (!dry)
-				id3v2.update();
-		} else if (hasv2) {
-			// convert all text frames
-			info ("Reencoding id3v2 tag into Unicode");
-			
-			boolean updated = false;
-			Vector frames = id3v2.getFrames();
-			if (frames != null && frames.size() > 0) {
-				for (Iterator iter = frames.iterator(); iter.hasNext();) {
-					ID3v2Frame frame = (ID3v2Frame) iter.next();
-					if (frame.getID().startsWith("T")) {
-						// check whether the frame is "numerical string" or URL as defined
-						// by IDv2.3.  They should be encoded in ISO8859-1, not Unicode
-						
-						if (id3v2.getVersion() == 3 && NON_UNICODE_FIELDS.contains(frame.getID())) {
-							debug("No action for frame: "+frame.getID()+" because it's a v2.3 non-unicode field");
-						} else {
-							byte[] buf = frame.getContent();
-							if (buf.length > 1 && buf[0] == 0) {
-								String s = new String(buf, 1, buf.length-1, encoding);
-								debug(frame.getID() + ": "+s);
-								byte[] newbuf = s.getBytes("UnicodeLittle");	// utf-16LE with leading BOM character
-																				// This seems to be the most compatible one
-								byte[] newbuf2 = new byte[newbuf.length+5];
-								System.arraycopy(newbuf, 0, newbuf2, 1, newbuf.length);
-								newbuf2[newbuf2.length-2]=newbuf2[newbuf2.length-1]=0;
-								newbuf2[0] = 1;		// UNICODE encoding
-								frame.setContent(newbuf2);
-								updated = true;
-							}
-						}
-					} else {
-						debug ("No action for frame: "+frame.getID());
-					}
-				}
-				if (!dry && updated) {
-					id3v2.touch();
-					id3v2.update();
-				}
-				if (!dry && removev1) 
-					id3.removeTag();
-			}
-		} else {
-			error ("File "+file.getAbsolutePath()+" has no id3 tag, skipping!");
-		}
-	}
-
-	/**
-	 * @param string
-	 */
-	private static void error(String string) {
-		System.out.println(string);		
-	}
-
-	/**
-	 * @param string
-	 */
-	private void debug(String string) {
-		if (isDebug) {
-			System.err.println(string);
-		}
-	}
-
-	/**
-	 * 
-	 */
-	private static void usage() {
-		System.out.println("ID3iconv - convert ID3 (ID3v1 or v2) tags from native encoding "
-					+ "to unicode and store them using ID3v2 format.\n"
-					+ "\n\tid3iconv [options] [mp3 files]\n\n" +						"Supported options:\n" +
-						"-e <encoding>   Specify original tag encoding.  If not specified, system default encoding will be used.\n" +
-						"-p              Dry-run. Do not actually modify files\n" +
-						"-v1             Force using v1 tag as source, even if v2 tag exists.  Default is using v2 tag.\n" +
-						"-removev1       Remove v1 tag after processing the file\n" +
-						"-q              Quiet mode\n" +
-						"-d              Output debug info to stderr\n"+
-						"\nCAUTION: Files are update in-place.  So backup if you're unsure of what you are doing."
-						);		
-	}
-	
-	String genreString[] = {"Blues"
-		,  "Classic Rock"
-		,  "Country"
-		,  "Dance"
-		,  "Disco"
-		,  "Funk"
-		,  "Grunge"
-		,  "Hip-Hop"
-		,  "Jazz"
-		,  "Metal"
-		,  "New Age"
-		,  "Oldies"
-		,  "Other"
-		,  "Pop"
-		,  "R&B"
-		,  "Rap"
-		,  "Reggae"
-		,  "Rock"
-		,  "Techno"
-		,  "Industrial"
-		,  "Alternative"
-		,  "Ska"
-		,  "Death Metal"
-		,  "Pranks"
-		,  "Soundtrack"
-		,  "Euro-Techno"
-		,  "Ambient"
-		,  "Trip-Hop"
-		,  "Vocal"
-		,  "Jazz Funk"
-		,  "Fusion"
-		,  "Trance"
-		,  "Classical"
-		,  "Instrumental"
-		,  "Acid"
-		,  "House"
-		,  "Game"
-		,  "Sound Clip"
-		,  "Gospel"
-		,  "Noise"
-		,  "Alternative Rock"
-		,  "Bass"
-		,  "Soul"
-		,  "Punk"
-		,  "Space"
-		,  "Meditative"
-		,  "Instrumental Pop"
-		,  "Instrumental Rock"
-		,  "Ethnic"
-		,  "Gothic"
-		,  "Darkwave"
-		,  "Techno-Industrial"
-		,  "Electronic"
-		,  "Pop-Folk"
-		,  "Eurodance"
-		,  "Dream"
-		,  "Southern Rock"
-		,  "Comedy"
-		,  "Cult"
-		,  "Gangsta"
-		,  "Top 40"
-		,  "Christian Rap"
-		,  "Pop/Funk"
-		,  "Jungle"
-		,  "Native American"
-		,  "Cabaret"
-		,  "New Wave"
-		,  "Psychadelic"
-		,  "Rave"
-		,  "Showtunes"
-		,  "Trailer"
-		,  "Lo-Fi"
-		,  "Tribal"
-		,  "Acid Punk"
-		,  "Acid Jazz"
-		,  "Polka"
-		,  "Retro"
-		,  "Musical"
-		,  "Rock & Roll"
-		,  "Hard Rock"
-		,  "Folk"
-		,  "Folk/Rock"
-		,  "National Folk"
-		,  "Swing"
-		,  "Fast Fusion"
-		,  "Bebob"
-		,  "Latin"
-		,  "Revival"
-		,  "Celtic"
-		,  "Bluegrass"
-		,  "Avantgarde"
-		,  "Gothic Rock"
-		,  "Progressive Rock"
-		,  "Psychedelic Rock"
-		,  "Symphonic Rock"
-		,  "Slow Rock"
-		,  "Big Band"
-		,  "Chorus"
-		,  "Easy Listening"
-		,  "Acoustic"
-		,  "Humour"
-		,  "Speech"
-		,  "Chanson"
-		,  "Opera"
-		,  "Chamber Music"
-		,  "Sonata"
-		,  "Symphony"
-		,  "Booty Bass"
-		,  "Primus"
-		,  "Porn Groove"
-		,  "Satire"
-		,  "Slow Jam"
-		,  "Club"
-		,  "Tango"
-		,  "Samba"
-		,  "Folklore"
-		,  "Ballad"
-		,  "Power Ballad"
-		,  "Rhythmic Soul"
-		,  "Freestyle"
-		,  "Duet"
-		,  "Punk Rock"
-		,  "Drum Solo"
-		,  "A Capella"
-		,  "Euro-House"
-		,  "Dance Hall"
-		,  "Goa"
-		,  "Drum & Bass"
-		,  "Club-House"
-		,  "Hardcore"
-		,  "Terror"
-		,  "Indie"
-		,  "BritPop"
-		,  "Negerpunk"
-		,  "Polsk Punk"
-		,  "Beat"
-		,  "Christian Gangsta Rap"
-		,  "Heavy Metal"
-		,  "Black Metal"
-		,  "Crossover"
-		,  "Contemporary Christian"
-		,  "Christian Rock"
-		,  "Merengue"
-		,  "Salsa"
-		,  "Thrash Metal"
-		,  "Anime"
-		,  "JPop"
-		,  "Synthpop"
-	};
-	
-}
+/*
+ * Created on 2003-8-23
+ */
+package net.zhoufeng;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import javax.management.JMException;
+
+import de.vdheide.mp3.ID3;
+import de.vdheide.mp3.ID3v2;
+import de.vdheide.mp3.ID3v2Frame;
+import de.vdheide.mp3.TagLayout;
+import de.vdheide.mp3.TagRewriter;
+import de.vdheide.mp3.TextCodec;
+import pri.nightmare.utils.RateLimiter;
+import pri.nightmare.utils.Throttle;
+
+/**
+ * @author zf
+ *
+ */
+public class ID3iconv {
+
+	private boolean isDebug;
+	private boolean removev1;
+	private boolean forcev1;
+	private boolean quiet;
+	private boolean dry;
+	/** Set by --smallest: each frame is written in the encoding that takes the fewest bytes */
+	private boolean smallest;
+	/** Set by -v24: v2 tags created from v1 tags are written as ID3v2.4 */
+	private boolean v24;
+	private String encoding = System.getProperty("file.encoding");
+	/** Set by -e auto: the source encoding is detected per directory */
+	DirectoryEncodings encodings;
+	/** Set by --scan: files are only classified, not converted */
+	private TagScanner scanner;
+	private PrintStream out = System.out;
+	private PrintStream err = System.err;
+	/** Limits the bytes read and written per second, unlimited by default */
+	final RateLimiter bytesLimit = new RateLimiter(0);
+	/** Limits the files opened, created, deleted and renamed per second */
+	final RateLimiter operationsLimit = new RateLimiter(0);
+	private final Throttle throttle = new Throttle(bytesLimit, operationsLimit);
+	/** Bounds the memory taken by the tags of all files in flight */
+	private MemoryBudget budget;
+	/** Text frames transcoded so far, null if disabled */
+	FrameCache frames;
+
+	/**
+	 * Bytes of text frames kept by the frame cache unless --frame-cache is given
+	 */
+	private static final long DEFAULT_FRAME_CACHE = 4 << 20;
+
+	/**
+	 * Text frames larger than this are left alone by the conversion of a tag
+	 * too large for the memory budget
+	 */
+	private static final int MAX_STREAMED_TEXT = 1 << 16;
+
+	/**
+	 * Files converted at the same time with --virtual-threads, unless -j is given
+	 */
+	private static final int DEFAULT_VIRTUAL_CONCURRENCY = 256;
+
+	/**
+	 * Time a file must stay unchanged before --watch converts it, in milliseconds
+	 */
+	private static final long WATCH_SETTLE = 2000;
+
+	/**
+	 * Time after which a lease of --shards expires unless it is renewed, in seconds
+	 */
+	private static final int DEFAULT_LEASE_TTL = 300;
+
+	/**
+	 * Capacity of the queues between two stages of --pipeline
+	 */
+	private static final int DEFAULT_QUEUE_DEPTH = 16;
+
+	/**
+	 * Files queued or in flight on all devices together with --per-device
+	 */
+	private static final int DEFAULT_DEVICE_PENDING = 256;
+
+	/**
+	 * Files sorted together with --order inode
+	 */
+	private static final int DEFAULT_ORDER_WINDOW = 10000;
+
+	/**
+	 * Text frames of ID3v2.3 that hold numerical strings, which are kept in ISO-8859-1
+	 */
+	static HashSet NON_UNICODE_FIELDS = new HashSet();
+	private static String[] _NON_UNICODE_FIELDS = {
+		"TDAT", "TIME", "TPOS", "TRCK", "TYER"
+	};
+	
+	static {
+		for (int i = 0; i < _NON_UNICODE_FIELDS.length; i++)
+			NON_UNICODE_FIELDS.add(_NON_UNICODE_FIELDS[i]);
+	}
+
+	public static void main(String[] args) {
+		if (args.length == 2 && args[0].equals("--daemon")) {
+			try {
+				new Daemon(new File(args[1])).serve();
+			} catch (IOException e) {
+				System.err.println("Cannot run daemon on "+args[1]+": "+e);
+				System.exit(-1);
+			}
+			return;
+		}
+		int status = run(args, null, System.in, System.out, System.err);
+		if (status != 0)
+			System.exit(status);
+	}
+
+	/**
+	 * Parse the command line and convert the files it names
+	 *
+	 * @param args Options and files, as given to <code>main</code>
+	 * @param cwd Directory relative paths are resolved against, or null for
+	 *        the working directory of the process
+	 * @param in Stream <code>--from-stdin</code> reads paths from, or null
+	 *        if there is none
+	 * @param out Receives the messages
+	 * @param err Receives debug output and stack traces
+	 * @return Exit status: 0, or -1 if the options are invalid
+	 */
+	static int run(String[] args, File cwd, InputStream in, PrintStream out,
+			PrintStream err) {
+		int opt = 0;
+		if (args.length == 0) {
+			usage(out);
+			return 0;
+		}
+
+		ID3iconv encoder = new ID3iconv();
+		encoder.out = out;
+		encoder.err = err;
+		int threads = 0;
+		boolean virtualThreads = false;
+		String manifest = null;
+		int[] stages = null;
+		int[] perDevice = null;
+		InodeOrder order = null;
+		int progress = 0;
+		boolean jmx = false;
+		boolean watch = false;
+		boolean fromStdin = false;
+		boolean nul = false;
+		ShardFilter shard = null;
+		int shards = 0;
+		String leaseDir = null;
+		int leaseTtl = DEFAULT_LEASE_TTL;
+		int queueDepth = DEFAULT_QUEUE_DEPTH;
+		long memory = Runtime.getRuntime().maxMemory() / 2;
+		long frameCache = DEFAULT_FRAME_CACHE;
+		for (; opt < args.length; opt++) {
+			String s = args[opt];
+			if (s.equals("-e")) {
+				String e = args[++opt];
+				if (e.equals("auto") || e.startsWith("auto:")) {
+					try {
+						encoder.encodings = new DirectoryEncodings(new EncodingDetector(
+								e.equals("auto") ? EncodingDetector.DEFAULT_CANDIDATES : e.substring(5).split(",")));
+					} catch (IllegalArgumentException x) {
+						encoder.error(x.getMessage()+": "+e);
+						return -1;
+					}
+				} else {
+					encoder.encoding = e;
+					encoder.encodings = null;
+				}
+			} else if (s.equals("-p")) {
+				encoder.dry = true;
+			} else if (s.equals("-q")) {
+				encoder.quiet = true;
+			} else if (s.equals("-v1")) {
+				encoder.forcev1 = true;
+			} else if (s.equals("-v24")) {
+				encoder.v24 = true;
+			} else if (s.equals("--smallest")) {
+				encoder.smallest = true;
+			} else if (s.equals("-removev1")) {
+				encoder.removev1 = true;
+			} else if (s.equals("-d")) {
+				encoder.isDebug = true;
+			} else if (s.equals("-j")) {
+				threads = Integer.parseInt(args[++opt]);
+				if (threads < 1) {
+					encoder.error("Invalid number of workers: "+threads);
+					return -1;
+				}
+			} else if (s.equals("-m")) {
+				manifest = args[++opt];
+			} else if (s.equals("--pipeline")) {
+				String[] counts = args[++opt].split(",");
+				if (counts.length != 3) {
+					encoder.error("--pipeline expects <readers>,<transcoders>,<writers>");
+					return -1;
+				}
+				stages = new int[counts.length];
+				for (int i = 0; i < counts.length; i++)
+					stages[i] = Math.max(Integer.parseInt(counts[i].trim()), 1);
+			} else if (s.equals("--per-device")) {
+				String[] counts = args[++opt].split(",");
+				if (counts.length != 2) {
+					encoder.error("--per-device expects <readers>,<writers>");
+					return -1;
+				}
+				perDevice = new int[counts.length];
+				for (int i = 0; i < counts.length; i++)
+					perDevice[i] = Math.max(Integer.parseInt(counts[i].trim()), 1);
+			} else if (s.equals("--order")) {
+				String[] spec = args[++opt].split(":");
+				if (!spec[0].equals("inode")) {
+					encoder.error("Unknown order: "+spec[0]);
+					return -1;
+				}
+				order = new InodeOrder(spec.length > 1 ?
+						Math.max(Integer.parseInt(spec[1]), 1) : DEFAULT_ORDER_WINDOW);
+			} else if (s.equals("--progress")) {
+				progress = Math.max(Integer.parseInt(args[++opt]), 1);
+			} else if (s.equals("--queue-depth")) {
+				queueDepth = Math.max(Integer.parseInt(args[++opt]), 1);
+			} else if (s.equals("--virtual-threads")) {
+				virtualThreads = true;
+			} else if (s.equals("--jmx")) {
+				jmx = true;
+			} else if (s.equals("--shard")) {
+				String[] spec = args[++opt].split("/");
+				try {
+					shard = new ShardFilter(Integer.parseInt(spec[0].trim()),
+							Integer.parseInt(spec[spec.length - 1].trim()));
+				} catch (IllegalArgumentException e) {
+					encoder.error("--shard expects <index>/<count>, with 0 <= index < count");
+					return -1;
+				}
+			} else if (s.equals("--shards")) {
+				shards = Integer.parseInt(args[++opt]);
+				if (shards < 1) {
+					encoder.error("Invalid number of shards: "+shards);
+					return -1;
+				}
+			} else if (s.equals("--lease-dir")) {
+				leaseDir = args[++opt];
+			} else if (s.equals("--lease-ttl")) {
+				leaseTtl = Math.max(Integer.parseInt(args[++opt]), 1);
+			} else if (s.equals("--limit-rate")) {
+				long rate = parseSize(args[++opt]);
+				if (rate < 0) {
+					encoder.error("Invalid rate: "+args[opt]);
+					return -1;
+				}
+				encoder.bytesLimit.setRate(rate);
+			} else if (s.equals("--memory")) {
+				memory = parseSize(args[++opt]);
+				if (memory <= 0) {
+					encoder.error("Invalid memory budget: "+args[opt]);
+					return -1;
+				}
+			} else if (s.equals("--frame-cache")) {
+				frameCache = parseSize(args[++opt]);
+				if (frameCache < 0) {
+					encoder.error("Invalid frame cache size: "+args[opt]);
+					return -1;
+				}
+			} else if (s.equals("--limit-ops")) {
+				encoder.operationsLimit.setRate(Math.max(Long.parseLong(args[++opt]), 0));
+			} else if (s.equals("--scan")) {
+				encoder.scanner = new TagScanner();
+			} else if (s.equals("--watch")) {
+				watch = true;
+			} else if (s.equals("--from-stdin")) {
+				fromStdin = true;
+			} else if (s.equals("-0")) {
+				fromStdin = true;
+				nul = true;
+			} else if (s.startsWith("-")) {
+				encoder.error("Unknown option: "+s);
+				return -1;
+			} else {
+				break;
+			}
+		}
+
+		if (fromStdin && (watch || in == null)) {
+			encoder.error(watch ? "--from-stdin cannot be used with --watch"
+					: "--from-stdin is not available here");
+			return -1;
+		}
+
+		if ((shards > 0) != (leaseDir != null)) {
+			encoder.error("--shards and --lease-dir must be used together");
+			return -1;
+		}
+		if ((shard != null || shards > 0) && watch) {
+			encoder.error("--watch cannot be sharded");
+			return -1;
+		}
+		if (shards > 0 && (shard != null || fromStdin)) {
+			encoder.error("--shards cannot be used with "+(shard != null ? "--shard" : "--from-stdin"));
+			return -1;
+		}
+
+		if (encoder.scanner != null && (manifest != null || watch)) {
+			encoder.error("--scan cannot be used with "+(watch ? "--watch" : "-m"));
+			return -1;
+		}
+
+		if (encoder.scanner == null && encoder.encodings != null)
+			encoder.info("Detecting source encoding per directory among: "+encoder.encodings.candidates());
+		else if (encoder.scanner == null)
+			encoder.info("Using source encoding: "+encoder.encoding);
+		encoder.budget = new MemoryBudget(memory);
+		if (frameCache > 0)
+			encoder.frames = new FrameCache(frameCache);
+		BatchConverter batch;
+		if ((stages != null ? 1 : 0) + (perDevice != null ? 1 : 0) + (virtualThreads ? 1 : 0) > 1) {
+			encoder.error("Only one of --pipeline, --per-device and --virtual-threads can be used");
+			return -1;
+		} else if (perDevice != null) {
+			batch = new DeviceScheduler(encoder, perDevice[0], perDevice[1],
+					DEFAULT_DEVICE_PENDING);
+		} else if (stages != null) {
+			batch = new Pipeline(encoder, stages[0], stages[1], stages[2], queueDepth);
+		} else if (virtualThreads) {
+			try {
+				batch = BatchConverter.withVirtualThreads(encoder,
+						threads > 0 ? threads : DEFAULT_VIRTUAL_CONCURRENCY);
+			} catch (UnsupportedOperationException e) {
+				encoder.error(e.getMessage());
+				return -1;
+			}
+		} else {
+			batch = new BatchConverter(encoder, Math.max(threads, 1));
+		}
+		if (order != null)
+			batch.setOrder(order);
+		if (progress > 0)
+			batch.progress.start(progress, err);
+		ConversionControl control = null;
+		if (jmx) try {
+			control = new ConversionControl(batch);
+			control.register();
+		} catch (JMException e) {
+			encoder.error("Cannot register MBean: "+e);
+			batch.finish();
+			return -1;
+		}
+		Manifest m = null;
+		if (manifest != null) try {
+			m = new Manifest(resolve(cwd, manifest));
+			batch.setManifest(m);
+		} catch (IOException e) {
+			encoder.error("Cannot open manifest "+manifest+": "+e);
+			batch.finish();
+			return -1;
+		}
+		if (watch) {
+			// files rewritten by the conversion must not be converted again
+			if (m == null)
+				batch.setManifest(new Manifest());
+			try {
+				Watcher watcher = new Watcher(batch, WATCH_SETTLE);
+				for (int i = opt; i < args.length; i++) {
+					encoder.info ("Watching "+args[i]);
+					watcher.watch(resolve(cwd, args[i]).toPath());
+				}
+				watcher.run();
+			} catch (IOException e) {
+				encoder.error("Cannot watch: "+e);
+			}
+		} else if (shards > 0) {
+			try {
+				LeaseDirectory leases = new LeaseDirectory(resolve(cwd, leaseDir),
+						shards, leaseTtl * 1000L);
+				convertShards(batch, leases, args, opt, cwd);
+			} catch (IOException e) {
+				encoder.error("Cannot use lease directory "+leaseDir+": "+e);
+			} catch (InterruptedException e) {
+				encoder.error("Interrupted while waiting for shards");
+			}
+		} else {
+			for (int i = opt; i < args.length; i++) try {
+				encoder.info ((encoder.scanner != null ? "Scanning " : "Converting ")+args[i]);
+				submit(batch, resolve(cwd, args[i]).toPath(), shard);
+			} catch (Exception e) {
+				e.printStackTrace(err);
+			}
+			if (fromStdin) try {
+				PathReader paths = new PathReader(in, nul);
+				String name;
+				while ((name = paths.next()) != null) {
+					encoder.info ((encoder.scanner != null ? "Scanning " : "Converting ")+name);
+					try {
+						submit(batch, resolve(cwd, name).toPath(), shard);
+					} catch (IOException e) {
+						encoder.error("Cannot read "+name+": "+e);
+					}
+				}
+			} catch (Exception e) {
+				e.printStackTrace(err);
+			}
+		}
+		batch.finish();
+		if (control != null)
+			control.unregister();
+		if (encoder.scanner != null)
+			encoder.scanner.report(encoder);
+		if (m != null) try {
+			m.close();
+		} catch (IOException e) {
+			encoder.error("Cannot write manifest "+manifest+": "+e);
+		}
+		if (threads > 1 || virtualThreads || stages != null || perDevice != null
+				|| order != null || m != null || jmx || shards > 0)
+			batch.printSummary();
+		return 0;
+	}
+
+	/**
+	 * Submit <code>path</code> if it is a file, or all mp3 files below it if
+	 * it is a directory
+	 *
+	 * @param shard Selects the files to submit, or null for all of them
+	 */
+	private static void submit(BatchConverter batch, Path path, ShardFilter shard)
+		throws IOException, InterruptedException {
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		if (attrs.isDirectory()) {
+		    DirectoryWalker.walk(path, batch, shard);
+		} else if (shard == null || shard.accepts(path, path)) {
+		    batch.submit(path.toFile(), attrs);
+		}
+	}
+
+	/**
+	 * Convert shard after shard of the files named by <code>args</code>,
+	 * as leases can be claimed, until all shards are done by this or
+	 * other processes.  Shards leased by processes that died are taken
+	 * over once their leases expire.
+	 */
+	private static void convertShards(BatchConverter batch, LeaseDirectory leases,
+			String[] args, int opt, File cwd) throws IOException, InterruptedException {
+		ID3iconv encoder = batch.encoder;
+		boolean waiting = false;
+		while (!leases.isDone()) {
+			LeaseDirectory.Lease lease = leases.claim();
+			if (lease == null) {
+				if (!waiting)
+					encoder.info("Waiting for shards leased by other processes");
+				waiting = true;
+				Thread.sleep(leases.pollInterval());
+				continue;
+			}
+			waiting = false;
+			encoder.info("Converting shard "+lease.shard);
+			boolean complete = true;
+			for (int i = opt; i < args.length; i++) try {
+				submit(batch, resolve(cwd, args[i]).toPath(), lease.shard);
+			} catch (IOException e) {
+				encoder.error("Cannot read "+args[i]+": "+e);
+				complete = false;
+			}
+			batch.await();
+			if (complete && lease.isHeld()) {
+				lease.done();
+			} else {
+				encoder.error("Shard "+lease.shard+" not completed");
+				lease.release();
+				if (complete)
+					continue;	// lease lost, the new owner finishes the shard
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return Number of bytes given as a number with an optional suffix
+	 *         k, m or g (powers of 1024), or -1 if it is invalid
+	 */
+	private static long parseSize(String s) {
+		s = s.trim();
+		if (s.length() == 0)
+			return -1;
+		int shift;
+		switch (Character.toLowerCase(s.charAt(s.length() - 1))) {
+		case 'g': shift = 30; break;
+		case 'm': shift = 20; break;
+		case 'k': shift = 10; break;
+		default: shift = 0; break;
+		}
+		if (shift != 0)
+			s = s.substring(0, s.length() - 1);
+		try {
+			long n = Long.parseLong(s.trim());
+			return n < 0 ? -1 : n << shift;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return <code>name</code>, resolved against <code>cwd</code> if it is
+	 *         relative
+	 */
+	private static File resolve(File cwd, String name) {
+		File file = new File(name);
+		return cwd == null || file.isAbsolute() ? file : new File(cwd, name);
+	}
+
+	/**
+	 * @return true if files are not actually modified
+	 */
+	boolean isDryRun() {
+		return dry;
+	}
+
+	/**
+	 * @param string
+	 */
+	void info(String string) {
+		if (!quiet) {
+			out.println(string);
+		}
+	}
+
+	
+	private void addFrame(ID3v2 id3v2, String id, String content, String encoding) throws Exception {
+		ID3v2Frame frame;
+		debug (id+": "+content);
+		if (content.length() == 0)
+			return;
+		byte[] newbuf2;
+		if (smallest)
+			newbuf2 = TextCodec.toSmallest(content, encoding, id3v2.getVersion() == 4);
+		else
+			newbuf2 = TextCodec.toUnicode(content, 2);	// utf-16 with BOM and terminator
+
+		frame = new ID3v2Frame (id, newbuf2,
+			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte)0, (byte)0);
+		id3v2.addFrame(frame);
+	}
+
+	/**
+	 * Convert the ID3 tag from any encoding to Unicode.  If the original file
+	 * contains ID3 v1 tags, it is converted to ID3v2 in order to support Unicode.
+	 * Safe to call from several threads at once: all per-file state is kept
+	 * in <code>c</code>, which also receives the outcome.
+	 * @param c the file to convert
+	 */
+	void convert(Conversion c) throws Exception{
+		parse(c);
+		transcode(c);
+		write(c);
+	}
+
+	/**
+	 * First phase of a conversion: read both tags.  Does all the reading,
+	 * but no charset conversion.
+	 */
+	void parse(Conversion c) throws Exception {
+		if (scanner != null) {
+			scan(c);
+			return;
+		}
+		long cost = MemoryBudget.cost(ID3v2.getTagSize(c.file, throttle));
+		if (!budget.fits(cost)) {
+			parseStreaming(c);
+			return;
+		}
+		c.reserved = budget.acquire(cost);
+		ID3 id3 = new ID3(c.file, throttle);		// V1 tag
+		id3.encoding = encodings != null ? "ISO-8859-1" : encoding;	// auto: raw bytes, decoded by transcode
+		ID3v2 id3v2 = new ID3v2(c.file, throttle);	// V2 tag
+		if (c.attrs != null) {
+			id3.setFileLength(c.attrs.size());
+			id3v2.setFileLength(c.attrs.size());
+		}
+
+		boolean hasv1 = id3.checkForTag();
+		boolean hasv2 = id3v2.hasTag();
+		
+		if (hasv2 && !forcev1) try {
+			id3v2.getFrames();
+		} catch (Exception e) {
+			debug ("Cannot get v2 frames, assuming no v2 tag.");
+			hasv2 = false;
+		}
+
+		if ((hasv1 && !hasv2) || (hasv1 && forcev1)) {
+			id3.readTag();		// v1 tag will be used
+		}
+		c.id3 = id3;
+		c.id3v2 = id3v2;
+		c.hasv1 = hasv1;
+		c.hasv2 = hasv2;
+	}
+
+	/**
+	 * Parse phase for a tag too large for the memory budget: read the
+	 * layout of the tag only.  Transcode reads just the text frames, and
+	 * write copies all other frames from the old file.
+	 */
+	private void parseStreaming(Conversion c) throws Exception {
+		debug("Tag of "+c.file.getPath()+" exceeds the memory budget, converting it in place");
+		if (forcev1)
+			throw new IOException("Tag too large for the memory budget, cannot be replaced by the v1 tag");
+		ID3 id3 = new ID3(c.file, throttle);
+		id3.encoding = encodings != null ? "ISO-8859-1" : encoding;	// auto: raw bytes, decoded by transcode
+		if (c.attrs != null)
+			id3.setFileLength(c.attrs.size());
+		c.layout = new TagLayout(c.file, throttle);
+		c.rewriter = new TagRewriter(c.file, c.layout, throttle);
+		c.id3 = id3;
+		c.hasv1 = id3.checkForTag();
+		c.hasv2 = true;
+	}
+
+	/**
+	 * Release the memory reserved for <code>c</code>
+	 */
+	void release(Conversion c) {
+		if (budget != null)
+			budget.release(c.reserved);
+		c.reserved = 0;
+	}
+
+	/**
+	 * Parse phase of --scan: read the layout of the tags only and classify
+	 * the file.  Transcode and write have nothing to do afterwards.
+	 */
+	private void scan(Conversion c) throws Exception {
+		c.layout = new TagLayout(c.file, throttle);
+		String line = scanner.add(c.layout);
+		info(c.file.getPath()+": "+line);
+		c.result = c.layout.getVersion() != 0 || c.layout.hasV1() ?
+				Result.UNCHANGED : Result.NO_TAG;
+	}
+
+	/**
+	 * Second phase of a conversion: re-encode the tags in memory.  Does no I/O.
+	 */
+	void transcode(Conversion c) throws Exception {
+		if (scanner != null)
+			return;
+		TranscodeEvent event = new TranscodeEvent();
+		event.begin();
+		try {
+			transcode(c, event);
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.path = c.file.getPath();
+				event.encoding = c.encoding;
+				event.confidence = c.confidence;
+				event.fileSize = c.attrs != null ? c.attrs.size() : c.file.length();
+				event.result = String.valueOf(c.result);
+				event.commit();
+			}
+		}
+	}
+
+	private void transcode(Conversion c, TranscodeEvent event) throws Exception {
+		if (c.rewriter != null) {
+			transcodeStreaming(c, event);
+			return;
+		}
+		c.encoding = encoding;
+		c.confidence = 1;
+		ID3 id3 = c.id3;
+		ID3v2 id3v2 = c.id3v2;
+		boolean hasv1 = c.hasv1;
+		boolean hasv2 = c.hasv2;
+
+		if ((hasv1 && !hasv2) || (hasv1 && forcev1)) {
+			// convert ID3v1 to ID3v2
+			info ("Converting id3v1 tag to id3v2 Unicode format.");
+			if (hasv2 && forcev1) {
+				info("Warning: v1 tag use forced, original v2 tag overwritten.");
+			}
+			if (encodings != null) {
+				List<byte[]> texts = new ArrayList<byte[]>();
+				String[] fields = {id3.getTitle(), id3.getArtist(), id3.getAlbum(), id3.getComment()};
+				for (int i = 0; i < fields.length; i++)
+					texts.add(fields[i].getBytes("ISO-8859-1"));
+				detect(c, texts);
+			}
+			id3v2.clear();		// clear current v2 content, if it exists
+			if (v24)
+				id3v2.setNewTagVersion(4);
+			addFrame(id3v2, "TALB", v1(c, id3.getAlbum()), c.encoding);
+			addFrame(id3v2, "TOPE", v1(c, id3.getArtist()), c.encoding);
+			addFrame(id3v2, "TPE1", v1(c, id3.getArtist()), c.encoding);
+			addFrame(id3v2, "COMM", v1(c, id3.getComment()), c.encoding);
+			addFrame(id3v2, "TIT2", v1(c, id3.getTitle()), c.encoding);
+			// TORY of ID3v2.3 is TDOR in ID3v2.4
+			addFrame(id3v2, v24 ? "TDOR" : "TORY", v1(c, id3.getYear()), c.encoding);
+			int i = id3.getGenre();
+			if (i >= 0 && i < Genres.NAMES.length)
+				addFrame(id3v2, "TCON", Genres.NAMES[i], c.encoding);
+			else
+				addFrame(id3v2, "TCON", "unknown", c.encoding);
+			addFrame(id3v2, "TRCK", id3.getTrack()+"", c.encoding);
+			event.frameCount = id3v2.getFrames().size();
+			c.removeV1 = !dry && removev1;
+			c.updateV2 = !dry;
+			c.result = Result.V1_CONVERTED;
+			if (!id3v2.isModified()) {
+				// converted before, the v2 tag is already the same
+				debug("No change to the v2 tag");
+				c.updateV2 = false;
+				c.result = Result.UNCHANGED;
+			}
+		} else if (hasv2) {
+			// convert all text frames
+			info ("Reencoding id3v2 tag into Unicode");
+			
+			boolean updated = false;
+			Vector frames = id3v2.getFrames();
+			if (frames != null && frames.size() > 0) {
+				if (encodings != null) {
+					List<byte[]> texts = new ArrayList<byte[]>();
+					for (Object o : frames) {
+						ID3v2Frame frame = (ID3v2Frame) o;
+						if (isText(frame.getID(), id3v2.getVersion()))
+							addText(texts, frame.getContent());
+					}
+					detect(c, texts);
+				}
+				for (Iterator iter = frames.iterator(); iter.hasNext();) {
+					ID3v2Frame frame = (ID3v2Frame) iter.next();
+					if (frame.getID().startsWith("T")) {
+						// check whether the frame is "numerical string" or URL as defined
+						// by IDv2.3.  They should be encoded in ISO8859-1, not Unicode
+						
+						if (id3v2.getVersion() == 3 && NON_UNICODE_FIELDS.contains(frame.getID())) {
+							debug("No action for frame: "+frame.getID()+" because it's a v2.3 non-unicode field");
+						} else {
+							byte[] buf = frame.getContent();
+							byte[] newbuf2 = reencode(frame.getID(), buf, c.encoding, id3v2.getVersion() == 4);
+							if (newbuf2 != null) {
+								frame.setContent(newbuf2);
+								updated = true;
+								event.frameCount++;
+								event.tagSize += buf.length;
+								event.bytesCopied += newbuf2.length;
+							}
+						}
+					} else {
+						debug ("No action for frame: "+frame.getID());
+					}
+				}
+				c.updateV2 = !dry && updated;
+				c.removeV1 = !dry && removev1;
+			}
+			c.result = updated ? Result.V2_REENCODED : Result.UNCHANGED;
+		} else {
+			error ("File "+c.file.getAbsolutePath()+" has no id3 tag, skipping!");
+			c.result = Result.NO_TAG;
+		}
+	}
+
+	/**
+	 * Transcode phase for a tag too large for the memory budget: read and
+	 * re-encode the text frames only
+	 */
+	private void transcodeStreaming(Conversion c, TranscodeEvent event) throws Exception {
+		c.encoding = encoding;
+		c.confidence = 1;
+		info ("Reencoding id3v2 tag into Unicode");
+		// read the text frames first, the encoding may be detected from all of them
+		Map<TagLayout.Frame, byte[]> texts = new LinkedHashMap<TagLayout.Frame, byte[]>();
+		for (Iterator<TagLayout.Frame> iter = c.layout.getFrames().iterator(); iter.hasNext();) {
+			TagLayout.Frame frame = iter.next();
+			if (!frame.getID().startsWith("T")) {
+				debug ("No action for frame: "+frame.getID());
+			} else if (c.layout.getVersion() == 3 && NON_UNICODE_FIELDS.contains(frame.getID())) {
+				debug("No action for frame: "+frame.getID()+" because it's a v2.3 non-unicode field");
+			} else if (!c.rewriter.isReplaceable(frame) || frame.getSize() > MAX_STREAMED_TEXT) {
+				debug("No action for frame: "+frame.getID()+" because it is not stored plainly");
+			} else {
+				texts.put(frame, c.rewriter.read(frame));
+			}
+		}
+		if (encodings != null) {
+			List<byte[]> raw = new ArrayList<byte[]>();
+			for (Iterator<byte[]> iter = texts.values().iterator(); iter.hasNext();)
+				addText(raw, iter.next());
+			detect(c, raw);
+		}
+
+		boolean updated = false;
+		for (Iterator<Map.Entry<TagLayout.Frame, byte[]>> iter = texts.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<TagLayout.Frame, byte[]> e = iter.next();
+			TagLayout.Frame frame = e.getKey();
+			byte[] buf = e.getValue();
+			byte[] newbuf2 = reencode(frame.getID(), buf, c.encoding, c.layout.getVersion() == 4);
+			if (newbuf2 != null) {
+				c.rewriter.replace(frame, newbuf2);
+				updated = true;
+				event.frameCount++;
+				event.tagSize += buf.length;
+				event.bytesCopied += newbuf2.length;
+			}
+		}
+		c.updateV2 = !dry && updated;
+		c.removeV1 = !dry && removev1;
+		c.result = updated ? Result.V2_REENCODED : Result.UNCHANGED;
+	}
+
+	/**
+	 * Re-encode the content of a text frame in the source encoding to Unicode,
+	 * or with --smallest to the encoding that takes the fewest bytes
+	 *
+	 * @param encoding Source encoding of the file
+	 * @param utf8 True if the frame may be written in UTF-8, in a v2.4 tag
+	 * @return New content, or null if <code>buf</code> is not in ISO-8859-1,
+	 *         is empty, is pure ASCII, which reads the same in the source
+	 *         encoding, or would not change.  It may be shared with other
+	 *         frames through the frame cache and must not be modified.
+	 */
+	private byte[] reencode(String id, byte[] buf, String encoding, boolean utf8) throws IOException {
+		if (buf.length <= 1 || buf[0] != 0)
+			return null;
+		if (TextCodec.isAscii(buf, 1, buf.length-1) && TextCodec.isAsciiCompatible(encoding)) {
+			debug("No action for frame: "+id+" because it is pure ASCII");
+			return null;
+		}
+		// the output depends on the version of the tag only with --smallest
+		String key = smallest && utf8 ? encoding+" "+TextCodec.UTF_8 : encoding;
+		byte[] newbuf2 = frames != null ? frames.get(key, buf) : null;
+		if (newbuf2 != null) {
+			debug(id + ": (cached)");
+		} else {
+			if (isDebug)
+				debug(id + ": "+TextCodec.decode(buf, 1, buf.length-1, encoding));
+			if (smallest) {
+				newbuf2 = TextCodec.toSmallest(buf, 1, buf.length-1, encoding, utf8);
+			} else {
+				// utf-16LE with leading BOM character, the most compatible one,
+				// written straight into the new content
+				newbuf2 = TextCodec.toUnicode(buf, 1, buf.length-1, encoding, 4);
+			}
+			if (frames != null)
+				frames.put(key, buf, newbuf2);
+		}
+		if (Arrays.equals(newbuf2, buf)) {
+			debug("No action for frame: "+id+" because it reads the same in ISO-8859-1");
+			return null;
+		}
+		return newbuf2;
+	}
+
+	/**
+	 * Set the source encoding of <code>c</code> to the one detected for the
+	 * raw text of its tag
+	 */
+	private void detect(Conversion c, List<byte[]> texts) {
+		EncodingDetector.Detection d = encodings.encodingOf(c.file, texts);
+		debug("Detected source encoding "+d);
+		c.encoding = d.charset;
+		c.confidence = d.confidence;
+	}
+
+	/**
+	 * @return true if frame <code>id</code> of a v2.<code>version</code> tag
+	 *         holds text that is re-encoded
+	 */
+	private static boolean isText(String id, int version) {
+		return id.startsWith("T") && !(version == 3 && NON_UNICODE_FIELDS.contains(id));
+	}
+
+	/**
+	 * Add the raw text of a frame to <code>texts</code> if it is in
+	 * ISO-8859-1, that is in the source encoding
+	 */
+	private static void addText(List<byte[]> texts, byte[] buf) {
+		if (buf.length > 1 && buf[0] == 0)
+			texts.add(Arrays.copyOfRange(buf, 1, buf.length));
+	}
+
+	/**
+	 * @return A field of the v1 tag in the source encoding of <code>c</code>.
+	 *         With -e auto, the fields are read as ISO-8859-1, which keeps
+	 *         their bytes, and decoded here.
+	 */
+	private String v1(Conversion c, String field) throws IOException {
+		return encodings != null ? new String(field.getBytes("ISO-8859-1"), c.encoding) : field;
+	}
+
+	/**
+	 * Last phase of a conversion: write the changes back to the file.
+	 * As before, a v1 tag that is converted is removed before the new v2 tag
+	 * is written, while a v1 tag next to a re-encoded v2 tag is removed after.
+	 */
+	void write(Conversion c) throws Exception {
+		if (c.rewriter != null) {
+			if (c.updateV2) {
+				c.rewriter.write();
+				c.id3.setFileLength(-1);
+			}
+			if (c.removeV1)
+				c.id3.removeTag();
+		} else if (c.result == Result.V1_CONVERTED) {
+			if (c.removeV1) {
+				c.id3.removeTag();
+				c.id3v2.setFileLength(-1);
+			}
+			if (c.updateV2)
+				c.id3v2.update();
+		} else {
+			if (c.updateV2) {
+				c.id3v2.touch();
+				c.id3v2.update();
+				c.id3.setFileLength(-1);
+			}
+			if (c.removeV1) 
+				c.id3.removeTag();
+		}
+	}
+
+	/**
+	 * Print a line of a report, even in quiet mode
+	 */
+	void report(String string) {
+		out.println(string);
+	}
+
+	/**
+	 * @param string
+	 */
+	void error(String string) {
+		out.println(string);		
+	}
+
+	/**
+	 * @param string
+	 */
+	void debug(String string) {
+		if (isDebug) {
+			err.println(string);
+		}
+	}
+
+	/**
+	 * Print the stack trace of <code>e</code> with the debug output
+	 */
+	void trace(Throwable e) {
+		e.printStackTrace(err);
+	}
+
+	/**
+	 * 
+	 */
+	private static void usage(PrintStream out) {
+		out.println("ID3iconv - convert ID3 (ID3v1 or v2) tags from native encoding "
+					+ "to unicode and store them using ID3v2 format.\n"
+					+ "\n\tid3iconv [options] [mp3 files]\n\n" +						"Supported options:\n" +
+						"-e <encoding>   Specify original tag encoding.  If not specified, system default encoding will be used.\n" +
+						"-e auto[:<encoding>,...]  Detect the original tag encoding among the given encodings, by default\n" +
+						"                "+String.join(", ", EncodingDetector.DEFAULT_CANDIDATES)+".\n" +
+						"                It is decided once per directory from the first "+DirectoryEncodings.SAMPLE_FILES+" tags; tags that\n" +
+						"                are not valid in it are detected on their own\n" +
+						"-p              Dry-run. Do not actually modify files\n" +
+						"-v1             Force using v1 tag as source, even if v2 tag exists.  Default is using v2 tag.\n" +
+						"-removev1       Remove v1 tag after processing the file\n" +
+						"-v24            Write the v2 tag made from a v1 tag as ID3v2.4 instead of ID3v2.3.  Existing v2\n" +
+						"                tags keep their version\n" +
+						"--smallest      Write every text frame in the encoding that takes the fewest bytes: ISO-8859-1\n" +
+						"                if the text reads the same in it, otherwise UTF-16 or, in ID3v2.4 tags, UTF-8\n" +
+						"-m <manifest>   Record converted files in <manifest> and skip files unchanged since an earlier run\n" +
+						"--scan          Do not convert, but classify every file by the layout of its tags and report\n" +
+						"                totals: versions, non-Unicode text, compression, unsynchronization, padding.\n" +
+						"                Only tag headers are read\n" +
+						"--shard <i>/<n> Only convert the files of shard <i> out of <n>, by path below the directories given\n" +
+						"--shards <n>    Split the files into <n> shards, and convert them shard by shard with\n" +
+						"                other processes sharing --lease-dir, until all shards are done\n" +
+						"--lease-dir <dir>  Shared directory for the leases and done markers of --shards\n" +
+						"--lease-ttl <s> Time after which the lease of a process that died is taken over (default "+DEFAULT_LEASE_TTL+")\n" +
+						"-j <workers>    Convert files in parallel using the given number of worker threads\n" +
+						"--pipeline <readers>,<transcoders>,<writers>\n" +
+						"                Convert files in a pipeline with the given number of threads per stage\n" +
+						"--queue-depth <n>  Capacity of the queues between pipeline stages (default "+DEFAULT_QUEUE_DEPTH+")\n" +
+						"--per-device <readers>,<writers>\n" +
+						"                Limit the files read and written at the same time on every device\n" +
+						"--order inode[:<window>]\n" +
+						"                Convert files sorted by inode number, <window> files at a time (default "+DEFAULT_ORDER_WINDOW+")\n" +
+						"--limit-rate <bytes>  Read and write at most <bytes> per second (suffix k, m or g) over all\n" +
+						"                workers, including the copies made to rewrite files\n" +
+						"--limit-ops <n> Open, create, delete or rename at most <n> files per second over all workers\n" +
+						"--memory <bytes>  Memory for the tags of all files in flight (suffix k, m or g; default half\n" +
+						"                the heap).  Tags too large for it are converted without reading them whole\n" +
+						"--frame-cache <bytes>  Keep text frames already transcoded to reuse them for the next files\n" +
+						"                (suffix k, m or g; default "+(DEFAULT_FRAME_CACHE >> 20)+"m, 0 to disable)\n" +
+						"--progress <s>  Report throughput, counts and ETA to stderr every <s> seconds\n" +
+						"--from-stdin    Read more files to convert from standard input, one per line\n" +
+						"-0              Like --from-stdin, but the files are separated by NUL, as by find -print0\n" +
+						"--watch         Do not convert the given directories, but watch them and convert mp3 files\n" +
+						"                as they are created or modified, once they are unchanged for "+(WATCH_SETTLE / 1000)+"s\n" +
+						"--jmx           Register MBean net.zhoufeng:type=ID3iconv,run=<n> to watch, pause, resize\n" +
+						"                and throttle the running batch\n" +
+						"--virtual-threads  Convert every file on its own virtual thread (Java 21+).\n" +
+						"                With -j, at most <workers> files are converted at the same time (default "+DEFAULT_VIRTUAL_CONCURRENCY+")\n" +
+						"-q              Quiet mode\n" +
+						"--daemon <socket>  Stay resident and run the conversions requested by bin/id3iconvc\n" +
+						"                on Unix domain socket <socket>.  Must be the only option\n" +
+						"-d              Output debug info to stderr\n"+
+						"\nCAUTION: Files are update in-place.  So backup if you're unsure of what you are doing."
+						);		
+	}
+	
+	/**
+	 * ID3v1 genre names, by genre number.  A class of its own, so that the
+	 * table is only built once a v1 tag is actually converted.
+	 */
+	private static class Genres {
+		static final String NAMES[] = {"Blues"
+			,  "Classic Rock"
+			,  "Country"
+			,  "Dance"
+			,  "Disco"
+			,  "Funk"
+			,  "Grunge"
+			,  "Hip-Hop"
+			,  "Jazz"
+			,  "Metal"
+			,  "New Age"
+			,  "Oldies"
+			,  "Other"
+			,  "Pop"
+			,  "R&B"
+			,  "Rap"
+			,  "Reggae"
+			,  "Rock"
+			,  "Techno"
+			,  "Industrial"
+			,  "Alternative"
+			,  "Ska"
+			,  "Death Metal"
+			,  "Pranks"
+			,  "Soundtrack"
+			,  "Euro-Techno"
+			,  "Ambient"
+			,  "Trip-Hop"
+			,  "Vocal"
+			,  "Jazz Funk"
+			,  "Fusion"
+			,  "Trance"
+			,  "Classical"
+			,  "Instrumental"
+			,  "Acid"
+			,  "House"
+			,  "Game"
+			,  "Sound Clip"
+			,  "Gospel"
+			,  "Noise"
+			,  "Alternative Rock"
+			,  "Bass"
+			,  "Soul"
+			,  "Punk"
+			,  "Space"
+			,  "Meditative"
+			,  "Instrumental Pop"
+			,  "Instrumental Rock"
+			,  "Ethnic"
+			,  "Gothic"
+			,  "Darkwave"
+			,  "Techno-Industrial"
+			,  "Electronic"
+			,  "Pop-Folk"
+			,  "Eurodance"
+			,  "Dream"
+			,  "Southern Rock"
+			,  "Comedy"
+			,  "Cult"
+			,  "Gangsta"
+			,  "Top 40"
+			,  "Christian Rap"
+			,  "Pop/Funk"
+			,  "Jungle"
+			,  "Native American"
+			,  "Cabaret"
+			,  "New Wave"
+			,  "Psychadelic"
+			,  "Rave"
+			,  "Showtunes"
+			,  "Trailer"
+			,  "Lo-Fi"
+			,  "Tribal"
+			,  "Acid Punk"
+			,  "Acid Jazz"
+			,  "Polka"
+			,  "Retro"
+			,  "Musical"
+			,  "Rock & Roll"
+			,  "Hard Rock"
+			,  "Folk"
+			,  "Folk/Rock"
+			,  "National Folk"
+			,  "Swing"
+			,  "Fast Fusion"
+			,  "Bebob"
+			,  "Latin"
+			,  "Revival"
+			,  "Celtic"
+			,  "Bluegrass"
+			,  "Avantgarde"
+			,  "Gothic Rock"
+			,  "Progressive Rock"
+			,  "Psychedelic Rock"
+			,  "Symphonic Rock"
+			,  "Slow Rock"
+			,  "Big Band"
+			,  "Chorus"
+			,  "Easy Listening"
+			,  "Acoustic"
+			,  "Humour"
+			,  "Speech"
+			,  "Chanson"
+			,  "Opera"
+			,  "Chamber Music"
+			,  "Sonata"
+			,  "Symphony"
+			,  "Booty Bass"
+			,  "Primus"
+			,  "Porn Groove"
+			,  "Satire"
+			,  "Slow Jam"
+			,  "Club"
+			,  "Tango"
+			,  "Samba"
+			,  "Folklore"
+			,  "Ballad"
+			,  "Power Ballad"
+			,  "Rhythmic Soul"
+			,  "Freestyle"
+			,  "Duet"
+			,  "Punk Rock"
+			,  "Drum Solo"
+			,  "A Capella"
+			,  "Euro-House"
+			,  "Dance Hall"
+			,  "Goa"
+			,  "Drum & Bass"
+			,  "Club-House"
+			,  "Hardcore"
+			,  "Terror"
+			,  "Indie"
+			,  "BritPop"
+			,  "Negerpunk"
+			,  "Polsk Punk"
+			,  "Beat"
+			,  "Christian Gangsta Rap"
+			,  "Heavy Metal"
+			,  "Black Metal"
+			,  "Crossover"
+			,  "Contemporary Christian"
+			,  "Christian Rock"
+			,  "Merengue"
+			,  "Salsa"
+			,  "Thrash Metal"
+			,  "Anime"
+			,  "JPop"
+			,  "Synthpop"
+		};
+	}
+	
+}
@@ -0,0 +1,101 @@
+package net.zhoufeng;
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sorts pending files by device and inode number before they are converted.
+ * <p>
+ * On most Unix file systems inodes are allocated roughly in the order of the
+ * data they describe, so visiting files by inode turns the random seeks of
+ * a directory walk into mostly sequential reads and rewrites on rotational
+ * disks.  Files are collected in windows of a fixed size to keep memory
+ * bounded; each window is sorted and then handed on.
+ * <p>
+ * Device and inode number are taken from the file key of the attributes
+ * read by the walk, so sorting costs no metadata access of its own.  Files
+ * without inode numbers keep the order they were submitted in, and follow
+ * the sorted files of their window.
+ */
+class InodeOrder {
+
+	/**
+	 * File key of Unix file systems: device in hex, inode in decimal.  Both
+	 * are unsigned, but the inode is printed as a signed long.
+	 */
+	private static final Pattern UNIX_KEY = Pattern.compile("\\(dev=([0-9a-f]+),ino=(-?[0-9]+)\\)");
+
+	private final int window;
+	private List<Entry> pending = new ArrayList<Entry>();
+	/** Files of the window without inode number, in the order submitted */
+	private List<Entry> unsorted = new ArrayList<Entry>();
+	private boolean supported = true;
+
+	/**
+	 * @param window Number of files sorted together
+	 */
+	InodeOrder(int window) {
+		this.window = window;
+	}
+
+	/**
+	 * Add a file to the current window
+	 *
+	 * @return true if the window is full and should be drained
+	 */
+	boolean add(File file, BasicFileAttributes attrs) {
+		Object key = attrs != null ? attrs.fileKey() : null;
+		Matcher m = key != null ? UNIX_KEY.matcher(key.toString()) : null;
+		if (m != null && m.matches()) {
+			pending.add(new Entry(file, attrs, Long.parseUnsignedLong(m.group(1), 16),
+					Long.parseLong(m.group(2))));
+		} else {
+			if (attrs != null)
+				supported = false;
+			unsorted.add(new Entry(file, attrs, 0, 0));
+		}
+		return pending.size() + unsorted.size() >= window;
+	}
+
+	/**
+	 * @return All files of the current window, sorted by device and inode,
+	 *         then those without inode number
+	 */
+	List<Entry> drain() {
+		List<Entry> sorted = pending;
+		pending = new ArrayList<Entry>();
+		Collections.sort(sorted);
+		sorted.addAll(unsorted);
+		unsorted.clear();
+		return sorted;
+	}
+
+	public String toString() {
+		return supported ? "inode order, window "+window : "walk order, no inode numbers";
+	}
+
+	static class Entry implements Comparable<Entry> {
+		final File file;
+		final BasicFileAttributes attrs;
+		final long dev;
+		final long ino;
+
+		Entry(File file, BasicFileAttributes attrs, long dev, long ino) {
+			this.file = file;
+			this.attrs = attrs;
+			this.dev = dev;
+			this.ino = ino;
+		}
+
+		public int compareTo(Entry o) {
+			if (dev != o.dev)
+				return Long.compareUnsigned(dev, o.dev);
+			return Long.compareUnsigned(ino, o.ino);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package net.zhoufeng;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of conversion times with logarithmic buckets.
+ * <p>
+ * Every power of two is split into four buckets, so a percentile is off by
+ * at most a fifth of its value, while the whole histogram is a fixed array
+ * of counters that workers update without locking.
+ */
+class LatencyHistogram {
+
+	/** Buckets per power of two */
+	private static final int STEPS = 4;
+	/** Powers of two covered, in microseconds: up to about 12 days */
+	private static final int POWERS = 40;
+
+	private final AtomicLongArray counts = new AtomicLongArray(POWERS * STEPS);
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param nanos Time one file took
+	 */
+	void record(long nanos) {
+		long micros = Math.max(nanos / 1000, 1);
+		int log = 63 - Long.numberOfLeadingZeros(micros);
+		int index = Math.min(log * STEPS + (int) (((micros << 2) >>> log) - STEPS),
+				counts.length() - 1);
+		counts.incrementAndGet(index);
+		long m;
+		while ((m = max.get()) < nanos && !max.compareAndSet(m, nanos))
+			;
+	}
+
+	/**
+	 * @param p Percentile between 0 and 100
+	 * @return Upper bound of the bucket holding the percentile, in
+	 *         milliseconds, or 0 if nothing was recorded
+	 */
+	double percentile(double p) {
+		long total = 0;
+		for (int i = 0; i < counts.length(); i++)
+			total += counts.get(i);
+		if (total == 0)
+			return 0;
+		long rank = Math.max((long) Math.ceil(p / 100 * total), 1);
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				double upper = Math.pow(2, i / STEPS) * (STEPS + i % STEPS + 1) / STEPS;
+				return Math.min(upper / 1000, max());
+			}
+		}
+		return max();
+	}
+
+	/**
+	 * @return Longest time recorded, in milliseconds
+	 */
+	double max() {
+		return max.get() / 1e6;
+	}
+}
@@ -0,0 +1,270 @@
+package net.zhoufeng;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out shards of a library to processes on one or several hosts,
+ * through lease files in a directory they all share.
+ * <p>
+ * A process owns a shard while its lease file exists and holds the
+ * process's name.  Leases are created with an exclusive create, which is
+ * atomic on local file systems and on NFS v3 and later.  The owner touches
+ * its lease regularly; a lease whose modification time is older than the
+ * time to live is taken to belong to a process that crashed, and is
+ * reclaimed by renaming it away before it is created anew, unless it
+ * turns out to have been renewed or reclaimed by another process meanwhile.  Once all files
+ * of a shard are converted, a done marker is left behind and the lease is
+ * deleted.
+ * <p>
+ * Leases are only safe if the time to live is well above both the renewal
+ * interval and the clock skew between the hosts.
+ * <p>
+ * The files are named after the number of shards as well, so that runs
+ * with a different number of shards do not mix:
+ * <pre>shard-3-of-16.lease  shard-3-of-16.done</pre>
+ */
+class LeaseDirectory {
+
+	/** Distinguishes the runs of one daemon process */
+	private static final AtomicInteger RUNS = new AtomicInteger();
+
+	private final File dir;
+	private final int count;
+	private final long ttl;
+	private final String owner;
+
+	/**
+	 * @param dir Shared directory for leases and done markers
+	 * @param count Number of shards
+	 * @param ttl Time after which a lease that is not renewed expires, in milliseconds
+	 */
+	LeaseDirectory(File dir, int count, long ttl) throws IOException {
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("Cannot create "+dir);
+		this.dir = dir;
+		this.count = count;
+		this.ttl = ttl;
+		// pid@host, as reported by the runtime
+		this.owner = ManagementFactory.getRuntimeMXBean().getName()
+				+"#"+RUNS.incrementAndGet();
+	}
+
+	/**
+	 * Claim a shard that is neither done nor leased by a live process.
+	 * Every process starts looking at a different shard, so that they do
+	 * not all compete for the first one.
+	 *
+	 * @return The lease, or null if no shard is available right now
+	 */
+	Lease claim() throws IOException {
+		int start = (owner.hashCode() & 0x7fffffff) % count;
+		for (int i = 0; i < count; i++) {
+			int shard = (start + i) % count;
+			if (file(shard, "done").exists())
+				continue;
+			File lease = file(shard, "lease");
+			if (lease.exists() && !reclaim(lease))
+				continue;
+			if (create(lease))
+				return new Lease(shard, lease);
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if every shard has its done marker
+	 */
+	boolean isDone() {
+		for (int i = 0; i < count; i++) {
+			if (!file(i, "done").exists())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return Time a waiting process should sleep before it looks for
+	 *         shards to reclaim again, in milliseconds
+	 */
+	long pollInterval() {
+		return Math.max(ttl / 5, 100);
+	}
+
+	private File file(int shard, String kind) {
+		return new File(dir, "shard-"+shard+"-of-"+count+"."+kind);
+	}
+
+	/**
+	 * Remove <code>lease</code> if it has expired.
+	 *
+	 * @return true if the lease is gone
+	 */
+	private boolean reclaim(File lease) {
+		String holder = holder(lease);
+		long modified = lease.lastModified();
+		if (modified == 0)
+			return true;	// released in the meantime
+		if (System.currentTimeMillis() - modified < ttl)
+			return false;
+		return reclaim(lease, modified, holder);
+	}
+
+	/**
+	 * Remove <code>lease</code>, found expired with the given modification
+	 * time and holder.  The lease is renamed to a name of this process
+	 * first, so that only one of several processes that find it expired can
+	 * succeed.  The file renamed is then checked to still be the one found
+	 * expired: it may have been renewed since, or reclaimed and created anew
+	 * by another process.  If so, it is put back.
+	 *
+	 * @return true if the expired lease is gone
+	 */
+	boolean reclaim(File lease, long modified, String holder) {
+		File stale = new File(dir, lease.getName()+"."+owner.replaceAll("[^\\w.@-]", "_")+".stale");
+		if (!lease.renameTo(stale))
+			return false;
+		String now = holder(stale);
+		if (stale.lastModified() != modified || (now == null ? holder != null : !now.equals(holder))) {
+			try {
+				// fails rather than replace a lease created in the meantime
+				Files.move(stale.toPath(), lease.toPath());
+			} catch (IOException e) {
+				// the owner finds its lease gone and gives up the shard
+				stale.delete();
+			}
+			return false;
+		}
+		stale.delete();
+		return true;
+	}
+
+	/**
+	 * @return The process named in <code>lease</code>, or null if it cannot
+	 *         be read
+	 */
+	private static String holder(File lease) {
+		try {
+			BufferedReader in = new BufferedReader(new InputStreamReader(
+					new FileInputStream(lease), "UTF-8"));
+			try {
+				return in.readLine();
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private boolean create(File lease) throws IOException {
+		if (!lease.createNewFile())
+			return false;
+		OutputStream out = new FileOutputStream(lease);
+		try {
+			out.write((owner+"\n").getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		return true;
+	}
+
+	/**
+	 * A shard owned by this process.  A daemon thread renews the lease
+	 * until the shard is done or released.  Once the lease is lost, the
+	 * shard's filter accepts no more files.
+	 */
+	class Lease {
+		final ShardFilter shard;
+		private final File file;
+		private final Thread renewer;
+		private volatile boolean held = true;
+
+		Lease(int shard, File file) {
+			this.shard = new ShardFilter(shard, count) {
+				boolean accepts(Path root, Path file) {
+					return held && super.accepts(root, file);
+				}
+			};
+			this.file = file;
+			renewer = new Thread("lease-"+shard) {
+				public void run() {
+					try {
+						while (held) {
+							Thread.sleep(pollInterval());
+							renew();
+						}
+					} catch (InterruptedException e) {
+						// done or released
+					}
+				}
+			};
+			renewer.setDaemon(true);
+			renewer.start();
+		}
+
+		/**
+		 * @return false once the lease was found to be taken over by
+		 *         another process
+		 */
+		boolean isHeld() {
+			return held;
+		}
+
+		/**
+		 * Mark the shard as done and give up the lease
+		 *
+		 * @exception IOException If the lease was lost, since another
+		 *            process now owns the shard, or the marker cannot be created
+		 */
+		void done() throws IOException {
+			stop();
+			if (!isOwn())
+				throw new IOException("Lease "+file.getName()+" was taken over by another process");
+			File marker = file(shard.index, "done");
+			if (!marker.createNewFile() && !marker.exists())
+				throw new IOException("Cannot create "+marker);
+			file.delete();
+		}
+
+		/**
+		 * Give up the lease without marking the shard as done, so that
+		 * another process can claim it at once
+		 */
+		void release() {
+			stop();
+			if (isOwn())
+				file.delete();
+		}
+
+		private void stop() {
+			renewer.interrupt();
+			try {
+				renewer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void renew() {
+			if (!isOwn() || !file.setLastModified(System.currentTimeMillis()))
+				held = false;
+		}
+
+		/**
+		 * @return true if the lease file still names this process
+		 */
+		private boolean isOwn() {
+			return owner.equals(holder(file));
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package net.zhoufeng;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent record of the files handled by earlier runs.
+ * <p>
+ * Every file that was converted, found to be Unicode already or found to
+ * have no tag is recorded together with its size, modification time and
+ * file key as they were after the conversion.  A later run skips a file
+ * whose attributes still match, without opening it.
+ * <p>
+ * The manifest is a UTF-8 text file with one tab separated line per file:
+ * <pre>outcome size mtime filekey path</pre>
+ * Lines are appended and flushed as soon as a file is done, so a run that
+ * is interrupted can be resumed with the same manifest; a later line for the
+ * same path replaces an earlier one.  The file is compacted when it is
+ * opened if it holds many superseded lines.
+ */
+class Manifest {
+
+	private static final String ENCODING = "UTF-8";
+
+	/** Files remembered by a manifest that is only kept in memory */
+	static final int MAX_MEMORY_ENTRIES = 10000;
+
+	private final File file;
+	private final Map<String, String> entries;
+	private Writer out;
+
+	/**
+	 * Create a manifest that is only kept in memory, to recognize files
+	 * rewritten by this run.  Only the <code>MAX_MEMORY_ENTRIES</code> files
+	 * recorded or looked up most recently are remembered, so that a
+	 * long-running <code>--watch</code> does not grow without bound; a file
+	 * forgotten is read once more if it changes again.
+	 */
+	Manifest() {
+		this.file = null;
+		this.entries = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > MAX_MEMORY_ENTRIES;
+			}
+		});
+	}
+
+	/**
+	 * Load the manifest, creating it if it does not exist yet
+	 *
+	 * @param file Manifest file
+	 * @exception IOException If the manifest cannot be read or written
+	 */
+	Manifest(File file) throws IOException {
+		this.file = file;
+		this.entries = new ConcurrentHashMap<String, String>();
+		int lines = 0;
+		if (file.exists()) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(
+					new FileInputStream(file), ENCODING));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					int tab = nthTab(line, 4);
+					if (tab < 0)
+						continue;	// truncated by an interrupted run
+					entries.put(line.substring(tab + 1), line.substring(0, tab));
+					lines++;
+				}
+			} finally {
+				in.close();
+			}
+		}
+		if (lines > 2 * entries.size() + 1000)
+			compact();
+		boolean terminated = endsWithNewline(file);
+		out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file, true), ENCODING));
+		if (!terminated)
+			out.write('\n');	// finish a line cut off by an interrupted run
+	}
+
+	/**
+	 * @return true if <code>file</code> was handled by an earlier run and has
+	 *         not changed since
+	 */
+	boolean isUnchanged(File file, BasicFileAttributes attrs) {
+		String recorded = entries.get(key(file));
+		if (recorded == null)
+			return false;
+		// skip the outcome, compare the rest
+		return recorded.substring(recorded.indexOf('\t') + 1).equals(attributes(attrs));
+	}
+
+	/**
+	 * Record that <code>file</code> was handled
+	 *
+	 * @param file File converted
+	 * @param attrs Attributes of <code>file</code> after the conversion
+	 * @param result Outcome of the conversion
+	 */
+	synchronized void record(File file, BasicFileAttributes attrs, Result result)
+		throws IOException {
+		String key = key(file);
+		String value = result.name() + '\t' + attributes(attrs);
+		entries.put(key, value);
+		if (out != null) {
+			out.write(value + '\t' + key + '\n');
+			out.flush();
+		}
+	}
+
+	synchronized void close() throws IOException {
+		if (out != null)
+			out.close();
+	}
+
+	/**
+	 * Rewrite the manifest with only the latest line of every path
+	 */
+	private void compact() throws IOException {
+		File temp = pri.nightmare.utils.File.getTempFile("manifest", file);
+		Writer w = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(temp), ENCODING));
+		try {
+			for (Map.Entry<String, String> e : entries.entrySet()) {
+				w.write(e.getValue() + '\t' + e.getKey() + '\n');
+			}
+		} finally {
+			w.close();
+		}
+		if (!file.delete() || !temp.renameTo(file)) {
+			temp.delete();
+			throw new IOException("Cannot replace manifest "+file);
+		}
+	}
+
+	private static boolean endsWithNewline(File file) throws IOException {
+		if (!file.exists() || file.length() == 0)
+			return true;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			raf.seek(raf.length() - 1);
+			return raf.read() == '\n';
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static String key(File file) {
+		return file.getAbsolutePath();
+	}
+
+	private static String attributes(BasicFileAttributes attrs) {
+		Object fileKey = attrs.fileKey();
+		return attrs.size() + "\t" + attrs.lastModifiedTime().toMillis() + "\t"
+				+ (fileKey != null ? fileKey.toString() : "-");
+	}
+
+	/**
+	 * @return Index of the <code>n</code>th tab in <code>s</code>, or -1
+	 */
+	private static int nthTab(String s, int n) {
+		int pos = -1;
+		for (int i = 0; i < n; i++) {
+			pos = s.indexOf('\t', pos + 1);
+			if (pos < 0)
+				return -1;
+		}
+		return pos;
+	}
+}
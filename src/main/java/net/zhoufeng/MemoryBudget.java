@@ -0,0 +1,71 @@
+package net.zhoufeng;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds the memory taken by the tags of all files in flight together.
+ * <p>
+ * Before its tag is read, a file reserves an estimate of the memory its
+ * conversion takes, computed from the tag size in the ID3v2 header, and
+ * gives it back once it is done.  Workers wait while the budget is used
+ * up, so a few files with large pictures are converted one after another
+ * instead of all at once.  A file whose estimate exceeds the whole budget
+ * could never be admitted; it has to be converted without reading its tag
+ * into memory.
+ * <p>
+ * Reservations are counted in KiB, so that budgets beyond 2 GB fit the
+ * permits of a semaphore.
+ */
+class MemoryBudget {
+
+	/**
+	 * Copies of the tag held at the same time: the tag as read, the frames
+	 * parsed from it and the tag serialized again for writing
+	 */
+	private static final int COPIES = 3;
+
+	private final Semaphore permits;
+	private final int total;
+
+	/**
+	 * @param bytes Memory for all files in flight together
+	 */
+	MemoryBudget(long bytes) {
+		total = (int) Math.min(Math.max(bytes >> 10, 1), Integer.MAX_VALUE);
+		permits = new Semaphore(total, true);
+	}
+
+	/**
+	 * @param tagSize Size of the tag including its header
+	 * @return Estimated memory taken by converting a tag of this size
+	 */
+	static long cost(long tagSize) {
+		return COPIES * tagSize;
+	}
+
+	/**
+	 * @return true if <code>bytes</code> can be reserved at all
+	 */
+	boolean fits(long bytes) {
+		return kib(bytes) <= total;
+	}
+
+	/**
+	 * Reserve <code>bytes</code>, waiting until enough is given back
+	 *
+	 * @return The reservation, to be handed to <code>release</code>
+	 */
+	long acquire(long bytes) throws InterruptedException {
+		permits.acquire(kib(bytes));
+		return bytes;
+	}
+
+	void release(long bytes) {
+		if (bytes > 0)
+			permits.release(kib(bytes));
+	}
+
+	private static int kib(long bytes) {
+		return (int) Math.min((bytes + 1023) >> 10, Integer.MAX_VALUE);
+	}
+}
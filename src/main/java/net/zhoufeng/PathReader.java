@@ -0,0 +1,59 @@
+package net.zhoufeng;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Reads a list of paths from a stream one at a time, e.g. the output of
+ * <code>find</code> piped into <code>--from-stdin</code>.  Only the current
+ * path is held in memory, so the list can be arbitrarily long.
+ * <p>
+ * Paths are separated by newlines, or by NUL bytes as written by
+ * <code>find -print0</code> for paths that may contain newlines themselves.
+ * They are decoded as the JVM decodes file names.  Empty paths are skipped.
+ */
+class PathReader {
+
+	private final InputStream in;
+	private final int separator;
+	private final Charset charset;
+	private final ByteArrayOutputStream path = new ByteArrayOutputStream();
+
+	/**
+	 * @param in Stream to read
+	 * @param nul true if paths are separated by NUL bytes instead of newlines
+	 */
+	PathReader(InputStream in, boolean nul) {
+		this.in = new BufferedInputStream(in);
+		this.separator = nul ? 0 : '\n';
+		this.charset = Charset.forName(System.getProperty("sun.jnu.encoding",
+				Charset.defaultCharset().name()));
+	}
+
+	/**
+	 * Block until the next path has been read completely
+	 *
+	 * @return Next path, or null at the end of the stream
+	 */
+	String next() throws IOException {
+		int b;
+		while ((b = in.read()) >= 0) {
+			if (b != separator) {
+				path.write(b);
+			} else if (path.size() > 0) {
+				return take();
+			}
+		}
+		// the last path need not be terminated
+		return path.size() > 0 ? take() : null;
+	}
+
+	private String take() {
+		String s = new String(path.toByteArray(), charset);
+		path.reset();
+		return s;
+	}
+}
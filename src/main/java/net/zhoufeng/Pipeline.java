@@ -0,0 +1,214 @@
+package net.zhoufeng;
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Converts files in a pipeline of separate stages, each with its own
+ * threads:
+ * <ol>
+ * <li>scan: the caller, e.g. the directory walk, submits files
+ * <li>parse: reads the v1 and v2 tags (I/O bound)
+ * <li>transcode: re-encodes the text frames in memory (CPU bound)
+ * <li>write: rewrites the files that changed (I/O bound)
+ * </ol>
+ * The stages are connected by bounded queues.  A stage that runs ahead
+ * blocks as soon as the queue to the next one is full, so the number of
+ * parsed tags held in memory never exceeds the queue sizes plus the number
+ * of threads.  Queue depths are sampled while the pipeline runs: a queue
+ * that stays full shows that the stage it feeds is the bottleneck.
+ */
+class Pipeline extends BatchConverter {
+
+	/** Sampling interval for queue depths, in milliseconds */
+	private static final long SAMPLE_INTERVAL = 100;
+
+	/** Tells a stage thread to stop */
+	private static final Conversion END = new Conversion(null, null);
+
+	private final Stage parse;
+	private final Stage transcode;
+	private final Stage write;
+	private final Stage[] stages;
+	private final Thread sampler;
+
+	/**
+	 * @param encoder Converter shared by all stages
+	 * @param readers Number of parse threads
+	 * @param transcoders Number of transcode threads
+	 * @param writers Number of write threads
+	 * @param depth Capacity of every queue between two stages
+	 */
+	Pipeline(ID3iconv encoder, int readers, int transcoders, int writers, int depth) {
+		super(encoder, null, 0, 0);
+		concurrent = true;
+		parse = new Stage("parse", readers, depth) {
+			void process(Conversion c) throws Exception {
+				Pipeline.this.encoder.parse(c);
+				transcode.put(c);
+			}
+		};
+		transcode = new Stage("transcode", transcoders, depth) {
+			void process(Conversion c) throws Exception {
+				Pipeline.this.encoder.transcode(c);
+				if (c.needsWrite())
+					write.put(c);
+				else
+					completed(c);
+			}
+		};
+		write = new Stage("write", writers, depth) {
+			void process(Conversion c) throws Exception {
+				Pipeline.this.encoder.write(c);
+				completed(c);
+			}
+		};
+		stages = new Stage[] { parse, transcode, write };
+		for (Stage stage : stages)
+			stage.start();
+
+		sampler = new Thread("pipeline-sampler") {
+			public void run() {
+				long samples = 0;
+				try {
+					while (true) {
+						Thread.sleep(SAMPLE_INTERVAL);
+						for (Stage stage : stages)
+							stage.sample();
+						if (++samples % (1000 / SAMPLE_INTERVAL) == 0)
+							Pipeline.this.encoder.debug(depths());
+					}
+				} catch (InterruptedException e) {
+					// finished
+				}
+			}
+		};
+		sampler.setDaemon(true);
+		sampler.start();
+	}
+
+	void dispatch(File file, BasicFileAttributes attrs) throws InterruptedException {
+		parse.put(new Conversion(file, attrs));
+	}
+
+	/**
+	 * Shut the stages down one after another, so that every file queued
+	 * is carried through to the end.
+	 */
+	void drain() {
+		try {
+			for (Stage stage : stages)
+				stage.stop();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		sampler.interrupt();
+		super.drain();
+	}
+
+	void printSummary() {
+		super.printSummary();
+		encoder.info("Queue depth (average/maximum of capacity):");
+		for (Stage stage : stages) {
+			encoder.info("  "+stage.name+" ("+stage.threads.size()+" threads): "
+					+stage.average()+"/"+stage.max+" of "+stage.capacity);
+		}
+	}
+
+	/**
+	 * @return Current depth of all queues, for debug output
+	 */
+	private String depths() {
+		StringBuffer buf = new StringBuffer("Queue depth:");
+		for (Stage stage : stages)
+			buf.append(' ').append(stage.name).append('=').append(stage.queue.size());
+		return buf.toString();
+	}
+
+	/**
+	 * A queue and the threads that take conversions from it
+	 */
+	private abstract class Stage {
+		final String name;
+		final int capacity;
+		final BlockingQueue<Conversion> queue;
+		final List<Thread> threads = new ArrayList<Thread>();
+
+		// written by the sampler thread only
+		volatile int max;
+		volatile long total;
+		volatile long samples;
+
+		Stage(String name, int threads, int capacity) {
+			this.name = name;
+			this.capacity = capacity;
+			this.queue = new ArrayBlockingQueue<Conversion>(capacity);
+			for (int i = 0; i < threads; i++) {
+				this.threads.add(new Thread(name+"-"+i) {
+					public void run() {
+						work();
+					}
+				});
+			}
+		}
+
+		/**
+		 * Handle one conversion and pass it on to the next stage
+		 */
+		abstract void process(Conversion c) throws Exception;
+
+		void start() {
+			for (Thread t : threads)
+				t.start();
+		}
+
+		void put(Conversion c) throws InterruptedException {
+			queue.put(c);
+		}
+
+		/**
+		 * Wait until the queue is drained and all threads have stopped
+		 */
+		void stop() throws InterruptedException {
+			for (int i = 0; i < threads.size(); i++)
+				queue.put(END);
+			for (Thread t : threads)
+				t.join();
+		}
+
+		void sample() {
+			int depth = queue.size();
+			if (depth > max)
+				max = depth;
+			total += depth;
+			samples++;
+		}
+
+		String average() {
+			if (samples == 0)
+				return "0";
+			return String.valueOf(Math.round(total * 10.0 / samples) / 10.0);
+		}
+
+		private void work() {
+			try {
+				Conversion c;
+				while ((c = queue.take()) != END) {
+					try {
+						process(c);
+					} catch (InterruptedException e) {
+						throw e;
+					} catch (Exception e) {
+						failed(c, e);
+					}
+				}
+			} catch (InterruptedException e) {
+				// stopped
+			}
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package net.zhoufeng;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a batch run, and a thread that reports them periodically.
+ * <p>
+ * The counters are <code>LongAdder</code>s, so workers updating them on
+ * every file do not contend with each other; they are only summed up when
+ * a report is printed.
+ */
+class Progress {
+
+	private final LongAdder[] counts = new LongAdder[Result.values().length];
+	private final LongAdder discovered = new LongAdder();
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<String, LongAdder>();
+	final LatencyHistogram latency = new LatencyHistogram();
+	private final long started = System.nanoTime();
+	private Thread reporter;
+
+	// state of the last report, used by the reporter thread only
+	private long lastTime = started;
+	private long lastDone;
+	private long lastRead;
+	private long lastWritten;
+
+	Progress() {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = new LongAdder();
+	}
+
+	/**
+	 * Count a file that was found and will be converted or skipped
+	 */
+	void discovered() {
+		discovered.increment();
+	}
+
+	/**
+	 * Count a file that is done, with the bytes read and written for it
+	 */
+	void done(Result result, long read, long written) {
+		counts[result.ordinal()].increment();
+		bytesRead.add(read);
+		bytesWritten.add(written);
+	}
+
+	/**
+	 * Count a failure by the type of exception that caused it
+	 */
+	void failed(Exception e) {
+		String type = e.getClass().getSimpleName();
+		LongAdder count = errors.get(type);
+		if (count == null) {
+			LongAdder old = errors.putIfAbsent(type, count = new LongAdder());
+			if (old != null)
+				count = old;
+		}
+		count.increment();
+	}
+
+	/**
+	 * @return Number of failures by simple name of the exception, sorted
+	 */
+	Map<String, Long> errors() {
+		Map<String, Long> sorted = new TreeMap<String, Long>();
+		for (Map.Entry<String, LongAdder> e : errors.entrySet())
+			sorted.put(e.getKey(), e.getValue().sum());
+		return sorted;
+	}
+
+	/**
+	 * @return Number of files found so far
+	 */
+	long found() {
+		return discovered.sum();
+	}
+
+	long bytesRead() {
+		return bytesRead.sum();
+	}
+
+	long bytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	long get(Result result) {
+		return counts[result.ordinal()].sum();
+	}
+
+	/**
+	 * @return Number of files done, whatever the outcome
+	 */
+	long done() {
+		long done = 0;
+		for (LongAdder count : counts)
+			done += count.sum();
+		return done;
+	}
+
+	/**
+	 * Print a report to <code>out</code> every <code>seconds</code> seconds
+	 * until <code>stop</code> is called
+	 */
+	void start(final int seconds, final PrintStream out) {
+		reporter = new Thread("progress") {
+			public void run() {
+				try {
+					while (true) {
+						Thread.sleep(seconds * 1000L);
+						out.println(report());
+					}
+				} catch (InterruptedException e) {
+					// stopped
+				}
+			}
+		};
+		reporter.setDaemon(true);
+		reporter.start();
+	}
+
+	void stop() {
+		if (reporter != null) {
+			reporter.interrupt();
+			try {
+				reporter.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * @return One line with counts, rates since the last report and the
+	 *         time left for the files found so far
+	 */
+	String report() {
+		long now = System.nanoTime();
+		long done = done();
+		long found = discovered.sum();
+		long read = bytesRead.sum();
+		long written = bytesWritten.sum();
+		double interval = Math.max(now - lastTime, 1) / 1e9;
+		double elapsed = Math.max(now - started, 1) / 1e9;
+
+		StringBuffer buf = new StringBuffer();
+		buf.append(done).append('/').append(found).append(" files, ");
+		buf.append(format((done - lastDone) / interval)).append(" files/s, ");
+		buf.append("read ").append(format((read - lastRead) / interval / 1e6)).append(" MB/s, ");
+		buf.append("written ").append(format((written - lastWritten) / interval / 1e6)).append(" MB/s; ");
+		buf.append("v1->v2 ").append(get(Result.V1_CONVERTED));
+		buf.append(", v2 re-encoded ").append(get(Result.V2_REENCODED));
+		buf.append(", skipped ").append(get(Result.UNCHANGED) + get(Result.NO_TAG) + get(Result.SKIPPED));
+		buf.append(", errors ").append(get(Result.FAILED));
+		if (done > 0 && found > done) {
+			long eta = Math.round((found - done) * elapsed / done);
+			buf.append("; ETA ").append(eta / 3600).append(':')
+				.append(twoDigits(eta / 60 % 60)).append(':').append(twoDigits(eta % 60));
+		}
+
+		lastTime = now;
+		lastDone = done;
+		lastRead = read;
+		lastWritten = written;
+		return buf.toString();
+	}
+
+	static String format(double d) {
+		return String.valueOf(Math.round(d * 10) / 10.0);
+	}
+
+	private static String twoDigits(long l) {
+		return l < 10 ? "0"+l : String.valueOf(l);
+	}
+}
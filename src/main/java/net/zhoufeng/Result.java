@@ -0,0 +1,19 @@
+package net.zhoufeng;
+
+/**
+ * Outcome of converting a single file.
+ */
+enum Result {
+	/** ID3v1 tag was converted to an ID3v2 Unicode tag */
+	V1_CONVERTED,
+	/** Text frames of the ID3v2 tag were re-encoded to Unicode */
+	V2_REENCODED,
+	/** ID3v2 tag found, but nothing needed to be re-encoded */
+	UNCHANGED,
+	/** File has neither ID3v1 nor ID3v2 tag */
+	NO_TAG,
+	/** File is unchanged since an earlier run recorded in the manifest */
+	SKIPPED,
+	/** Conversion failed with an exception */
+	FAILED
+}
@@ -0,0 +1,60 @@
+package net.zhoufeng;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Selects the files of one shard out of <code>count</code>.
+ * <p>
+ * A file belongs to the shard given by the CRC-32 of its path relative to
+ * the directory named on the command line, modulo the number of shards.
+ * The relative path does not depend on where a host mounts the share, and
+ * CRC-32 is the same on every JVM, so processes on different hosts agree
+ * on the shard of every file without talking to each other.
+ */
+class ShardFilter {
+
+	final int index;
+	final int count;
+
+	/**
+	 * @param index Shard to accept, from 0 to <code>count</code>-1
+	 * @param count Number of shards
+	 */
+	ShardFilter(int index, int count) {
+		if (count < 1 || index < 0 || index >= count)
+			throw new IllegalArgumentException("Invalid shard "+index+"/"+count);
+		this.index = index;
+		this.count = count;
+	}
+
+	/**
+	 * @param root File or directory named on the command line
+	 * @param file File found below <code>root</code>, or <code>root</code> itself
+	 * @return true if <code>file</code> belongs to this shard
+	 */
+	boolean accepts(Path root, Path file) {
+		Path relative = root.relativize(file);
+		String name = relative.toString().length() > 0 ? relative.toString()
+				: String.valueOf(file.getFileName());
+		return shard(name.replace(file.getFileSystem().getSeparator(), "/"), count) == index;
+	}
+
+	/**
+	 * @return Shard of a relative path with '/' separators
+	 */
+	static int shard(String path, int count) {
+		CRC32 crc = new CRC32();
+		try {
+			crc.update(path.getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+		return (int) (crc.getValue() % count);
+	}
+
+	public String toString() {
+		return index+"/"+count;
+	}
+}
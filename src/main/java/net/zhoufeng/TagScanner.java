@@ -0,0 +1,150 @@
+package net.zhoufeng;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.vdheide.mp3.TagLayout;
+
+/**
+ * Classifies files by the layout of their tags without converting them,
+ * and sums the classes up for a report on a whole library.
+ * <p>
+ * A file is only looked at through <code>TagLayout</code>, which reads the
+ * ID3v2 header, the frame headers and the end of the file but decodes no
+ * text, so a scan is limited by seeks rather than by the size of the
+ * library.
+ */
+class TagScanner {
+
+	/** Padding above which a tag counts as oversized, in bytes */
+	static final long LARGE_PADDING = 16 * 1024;
+
+	private final LongAdder files = new LongAdder();
+	private final LongAdder noTag = new LongAdder();
+	private final LongAdder v1Only = new LongAdder();
+	private final LongAdder v1AndV2 = new LongAdder();
+	/** Files with an ID3v2 tag, by major version 2 to 4; 0 for others */
+	private final LongAdder[] versions = new LongAdder[5];
+	private final LongAdder nonUnicode = new LongAdder();
+	private final LongAdder reencode = new LongAdder();
+	private final LongAdder compressed = new LongAdder();
+	private final LongAdder encrypted = new LongAdder();
+	private final LongAdder unsynchronized = new LongAdder();
+	private final LongAdder largePadding = new LongAdder();
+	private final LongAdder damaged = new LongAdder();
+	private final LongAdder frames = new LongAdder();
+	private final LongAdder textFrames = new LongAdder();
+	private final LongAdder nonUnicodeFrames = new LongAdder();
+	private final LongAdder padding = new LongAdder();
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder fileBytes = new LongAdder();
+
+	TagScanner() {
+		for (int i = 0; i < versions.length; i++)
+			versions[i] = new LongAdder();
+	}
+
+	/**
+	 * Count the layout of one file
+	 *
+	 * @return One line classifying the file
+	 */
+	String add(TagLayout layout) {
+		int version = layout.getVersion();
+		boolean v2 = version != 0;
+		files.increment();
+		bytesRead.add(layout.getBytesRead());
+		fileBytes.add(layout.getFileLength());
+		if (!v2) {
+			if (layout.hasV1())
+				v1Only.increment();
+			else
+				noTag.increment();
+			return layout.hasV1() ? "v1 only" : "no tag";
+		}
+
+		if (layout.hasV1())
+			v1AndV2.increment();
+		versions[version >= 2 && version <= 4 ? version : 0].increment();
+		frames.add(layout.getFrameCount());
+		textFrames.add(layout.getTextFrames());
+		nonUnicodeFrames.add(layout.getNonUnicodeFrames());
+		padding.add(layout.getPadding());
+		int convertible = convertible(layout);
+		if (layout.getNonUnicodeFrames() > 0)
+			nonUnicode.increment();
+		if (convertible > 0)
+			reencode.increment();
+		if (layout.getCompressedFrames() > 0)
+			compressed.increment();
+		if (layout.getEncryptedFrames() > 0)
+			encrypted.increment();
+		if (layout.isUnsynchronized())
+			unsynchronized.increment();
+		if (layout.getPadding() > LARGE_PADDING)
+			largePadding.increment();
+		if (layout.isDamaged())
+			damaged.increment();
+
+		StringBuffer buf = new StringBuffer("v2.").append(version);
+		if (layout.hasV1())
+			buf.append(" + v1");
+		buf.append(", ").append(layout.getFrameCount()).append(" frames, ")
+			.append(layout.getTextFrames()).append(" text, ")
+			.append(layout.getNonUnicodeFrames()).append(" non-Unicode, ")
+			.append(convertible).append(" to re-encode");
+		if (layout.getCompressedFrames() > 0)
+			buf.append(", compressed");
+		if (layout.getEncryptedFrames() > 0)
+			buf.append(", encrypted");
+		if (layout.isUnsynchronized())
+			buf.append(", unsynchronized");
+		if (layout.getPadding() > LARGE_PADDING)
+			buf.append(", padding ").append(layout.getPadding());
+		if (layout.isDamaged())
+			buf.append(", damaged");
+		return buf.toString();
+	}
+
+	/**
+	 * Print the totals over all files scanned
+	 */
+	void report(ID3iconv encoder) {
+		long n = files.sum();
+		encoder.report("");
+		encoder.report("Scan: "+n+" files, read "+bytesRead.sum()+" of "
+				+fileBytes.sum()+" bytes");
+		encoder.report("  no tag: "+noTag.sum());
+		encoder.report("  v1 only: "+v1Only.sum());
+		encoder.report("  v2.2: "+versions[2].sum()+", v2.3: "+versions[3].sum()
+				+", v2.4: "+versions[4].sum()
+				+(versions[0].sum() > 0 ? ", other: "+versions[0].sum() : ""));
+		encoder.report("  v1 and v2: "+v1AndV2.sum());
+		encoder.report("  with non-Unicode text frames: "+nonUnicode.sum()
+				+" ("+nonUnicodeFrames.sum()+" of "+textFrames.sum()+" text frames, "
+				+frames.sum()+" frames)");
+		encoder.report("  compressed frames: "+compressed.sum()
+				+", encrypted frames: "+encrypted.sum());
+		encoder.report("  unsynchronized: "+unsynchronized.sum());
+		encoder.report("  padding over "+LARGE_PADDING+" bytes: "+largePadding.sum()
+				+" ("+padding.sum()+" bytes of padding in all)");
+		encoder.report("  damaged: "+damaged.sum());
+		encoder.report("  to convert: "+(v1Only.sum() + reencode.sum())
+				+" ("+v1Only.sum()+" from v1, "+reencode.sum()+" re-encoded)");
+	}
+
+	/**
+	 * @return Number of non-Unicode text frames a conversion would re-encode,
+	 *         i.e. all but the numerical strings of ID3v2.3
+	 */
+	private static int convertible(TagLayout layout) {
+		if (layout.getVersion() != 3)
+			return layout.getNonUnicodeFrames();
+		int n = 0;
+		for (Iterator<String> iter = layout.getNonUnicodeIDs().iterator(); iter.hasNext();) {
+			if (!ID3iconv.NON_UNICODE_FIELDS.contains(iter.next()))
+				n++;
+		}
+		return n;
+	}
+}
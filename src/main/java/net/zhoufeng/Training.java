@@ -0,0 +1,137 @@
+package net.zhoufeng;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+/**
+ * Runs typical conversions over a small synthetic corpus, so that the
+ * classes they need are loaded and their hot paths compiled.  The daemon
+ * does this before it accepts clients, and <code>sbt appcds</code> runs it
+ * to record the classes for its class data sharing archive.
+ * <p>
+ * The corpus has GBK tags of every kind the converter handles: ID3v2.3
+ * only, ID3v1 only, both, and none at all.
+ */
+class Training {
+
+	private static final String ENCODING = "GBK";
+	private static final int FILES = 8;
+	private static final String[] TITLES = {
+		"\u6d4b\u8bd5", "Warm up", "\u4e2d\u6587\u6b4c\u66f2", "Track"
+	};
+
+	/**
+	 * @param args Number of rounds, 3 if not given
+	 */
+	public static void main(String[] args) throws IOException {
+		run(args.length > 0 ? Integer.parseInt(args[0]) : 3);
+	}
+
+	/**
+	 * Convert a fresh corpus with each of a set of typical option
+	 * combinations, <code>rounds</code> times over
+	 */
+	static void run(int rounds) throws IOException {
+		File dir = Files.createTempDirectory("id3iconv").toFile();
+		File manifest = new File(dir, "manifest");
+		File corpus = new File(dir, "corpus");
+		String[][] options = {
+			{ "-e", ENCODING },
+			{ "-e", ENCODING, "-v1", "-removev1" },
+			{ "-e", ENCODING, "-j", "2", "-m", manifest.getPath() },
+			{ "-e", ENCODING, "--pipeline", "1,1,1", "--order", "inode" },
+			{ "-e", ENCODING, "-p" },
+		};
+		PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+		try {
+			for (int i = 0; i < rounds; i++) {
+				for (String[] o : options) {
+					createCorpus(corpus);
+					String[] args = new String[o.length + 1];
+					System.arraycopy(o, 0, args, 0, o.length);
+					args[o.length] = corpus.getPath();
+					ID3iconv.run(args, null, null, quiet, quiet);
+				}
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+
+	private static void createCorpus(File dir) throws IOException {
+		dir.mkdirs();
+		for (int i = 0; i < FILES; i++) {
+			String title = TITLES[i % TITLES.length];
+			ByteArrayOutputStream buf = new ByteArrayOutputStream();
+			if (i % 4 == 0 || i % 4 == 2)
+				buf.write(v2Tag(title));
+			buf.write(new byte[4096]);	// audio
+			if (i % 4 == 1 || i % 4 == 2)
+				buf.write(v1Tag(title, i));
+			OutputStream out = new FileOutputStream(new File(dir, "track"+i+".mp3"));
+			try {
+				buf.writeTo(out);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * @return An ID3v2.3 tag with title and artist in GBK
+	 */
+	private static byte[] v2Tag(String title) throws IOException {
+		ByteArrayOutputStream frames = new ByteArrayOutputStream();
+		frames.write(textFrame("TIT2", title));
+		frames.write(textFrame("TPE1", TITLES[0]));
+		int size = frames.size();
+		ByteArrayOutputStream tag = new ByteArrayOutputStream();
+		tag.write(new byte[] { 'I', 'D', '3', 3, 0, 0,
+				(byte) (size >> 21 & 0x7f), (byte) (size >> 14 & 0x7f),
+				(byte) (size >> 7 & 0x7f), (byte) (size & 0x7f) });
+		frames.writeTo(tag);
+		return tag.toByteArray();
+	}
+
+	private static byte[] textFrame(String id, String text) throws IOException {
+		byte[] content = text.getBytes(ENCODING);
+		int size = content.length + 1;
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		frame.write(id.getBytes("ISO-8859-1"));
+		frame.write(new byte[] { (byte) (size >> 24), (byte) (size >> 16),
+				(byte) (size >> 8), (byte) size, 0, 0, 0 });	// size, flags, encoding
+		frame.write(content);
+		return frame.toByteArray();
+	}
+
+	/**
+	 * @return An ID3v1.1 tag with title and artist in GBK
+	 */
+	private static byte[] v1Tag(String title, int track) throws IOException {
+		byte[] tag = new byte[128];
+		tag[0] = 'T';
+		tag[1] = 'A';
+		tag[2] = 'G';
+		byte[] b = title.getBytes(ENCODING);
+		System.arraycopy(b, 0, tag, 3, Math.min(b.length, 30));
+		b = TITLES[0].getBytes(ENCODING);
+		System.arraycopy(b, 0, tag, 33, Math.min(b.length, 30));
+		tag[126] = (byte) (track + 1);
+		tag[127] = (byte) (track % 20);
+		return tag;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children)
+				delete(child);
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,28 @@
+package net.zhoufeng;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import de.vdheide.mp3.TagEvent;
+
+/**
+ * Flight Recorder event for the transcode phase of a conversion.  Tag size,
+ * frame count and bytes copied are those of the frames that were re-encoded,
+ * before and after.
+ */
+@Name("net.zhoufeng.Transcode")
+@Label("Transcode")
+@Description("Re-encode the text frames of one file")
+class TranscodeEvent extends TagEvent {
+
+	@Label("Encoding")
+	String encoding;
+
+	@Label("Confidence")
+	@Description("Confidence of a detected encoding, 1 if it was given")
+	double confidence;
+
+	@Label("Result")
+	String result;
+}
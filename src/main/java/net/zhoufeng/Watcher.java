@@ -0,0 +1,184 @@
+package net.zhoufeng;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches directory trees and submits mp3 files that are created or
+ * modified in them to a <code>BatchConverter</code>.
+ * <p>
+ * A file is only submitted once its size and modification time have not
+ * changed for <code>settle</code> milliseconds, so files that are still
+ * being copied in are left alone.  Directories created below a watched one
+ * are watched as well, and the mp3 files already in them are picked up.
+ * <p>
+ * Converting a file rewrites it, which is reported like any other change;
+ * the batch should have a manifest so that such files are skipped.
+ */
+class Watcher {
+
+	/** How often pending files are checked, in milliseconds */
+	private static final long POLL = 500;
+
+	private final BatchConverter batch;
+	private final long settle;
+	private final WatchService service;
+	private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+	/** Files seen changing, in the order they were first seen */
+	private final Map<Path, Pending> pending = new LinkedHashMap<Path, Pending>();
+
+	/**
+	 * @param batch Receives the files
+	 * @param settle Time a file must stay unchanged, in milliseconds
+	 */
+	Watcher(BatchConverter batch, long settle) throws IOException {
+		this.batch = batch;
+		this.settle = settle;
+		this.service = FileSystems.getDefault().newWatchService();
+	}
+
+	/**
+	 * Watch <code>dir</code> and all directories below it.  Files already
+	 * there are not converted.
+	 */
+	void watch(Path dir) throws IOException {
+		register(dir, false);
+	}
+
+	/**
+	 * Convert files as they arrive until the thread is interrupted
+	 */
+	void run() throws IOException {
+		try {
+			while (!directories.isEmpty()) {
+				WatchKey key = service.poll(POLL, TimeUnit.MILLISECONDS);
+				while (key != null) {
+					process(key);
+					key = service.poll();
+				}
+				submitSettled();
+				batch.flush();
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		} catch (ClosedWatchServiceException e) {
+			// stopped
+		} finally {
+			service.close();
+		}
+		batch.encoder.error("No directories left to watch");
+	}
+
+	private void process(WatchKey key) throws IOException {
+		Path dir = directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// events were lost, look at everything below the directory
+				register(dir, true);
+				continue;
+			}
+			Path child = dir.resolve((Path) event.context());
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+					&& Files.isDirectory(child)) {
+				register(child, true);
+			} else if (DirectoryWalker.isMp3(child) && !pending.containsKey(child)) {
+				pending.put(child, new Pending());
+			}
+		}
+		if (!key.reset())
+			directories.remove(key);
+	}
+
+	/**
+	 * Submit the files that have not changed for the settle time
+	 */
+	private void submitSettled() throws InterruptedException {
+		long now = System.currentTimeMillis();
+		for (Iterator<Map.Entry<Path, Pending>> iter = pending.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<Path, Pending> e = iter.next();
+			Path file = e.getKey();
+			Pending p = e.getValue();
+			BasicFileAttributes attrs;
+			try {
+				attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			} catch (NoSuchFileException ex) {
+				iter.remove();	// deleted or renamed before it settled
+				continue;
+			} catch (IOException ex) {
+				batch.encoder.error("Cannot read "+file+": "+ex);
+				iter.remove();
+				continue;
+			}
+			long mtime = attrs.lastModifiedTime().toMillis();
+			if (attrs.size() != p.size || mtime != p.mtime) {
+				p.size = attrs.size();
+				p.mtime = mtime;
+				p.since = now;
+			} else if (now - p.since >= settle) {
+				iter.remove();
+				if (attrs.isRegularFile())
+					batch.submit(file.toFile(), attrs);
+			}
+		}
+	}
+
+	/**
+	 * Watch <code>dir</code> and the directories below it
+	 *
+	 * @param scan true to queue the mp3 files found there as well
+	 */
+	private void register(Path dir, final boolean scan) throws IOException {
+		Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+				Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+			public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs)
+				throws IOException {
+				// registering a directory again returns the same key
+				WatchKey key = d.register(service,
+						StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY);
+				if (directories.put(key, d) == null)
+					batch.encoder.debug("Watching "+d);
+				return FileVisitResult.CONTINUE;
+			}
+
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (scan && attrs.isRegularFile() && DirectoryWalker.isMp3(file)
+						&& !pending.containsKey(file))
+					pending.put(file, new Pending());
+				return FileVisitResult.CONTINUE;
+			}
+
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				batch.encoder.error("Cannot read "+file+": "+e);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Attributes of a file when it was last seen changing
+	 */
+	private static class Pending {
+		long size = -1;
+		long mtime;
+		long since;
+	}
+}
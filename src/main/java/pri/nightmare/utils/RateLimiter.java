@@ -0,0 +1,77 @@
+// RateLimiter.java
+//
+// Token bucket that limits the rate of bytes (or operations) shared by
+// several threads.
+
+package pri.nightmare.utils;
+
+public class RateLimiter
+{
+  /**
+   * Create a limiter
+   *
+   * @param rate Units allowed per second, 0 for no limit
+   */
+  public RateLimiter(long rate)
+    {
+      setRate(rate);
+    }
+
+
+  /**
+   * Change the rate.  Threads already waiting keep their current delay.
+   *
+   * @param rate Units allowed per second, 0 for no limit
+   */
+  public synchronized void setRate(long rate)
+    {
+      this.rate = Math.max(rate, 0);
+      // start with a full bucket of one second
+      available = this.rate;
+      last = System.nanoTime();
+    }
+
+
+  /**
+   * @return Units allowed per second, 0 for no limit
+   */
+  public synchronized long getRate()
+    {
+      return rate;
+    }
+
+
+  /**
+   * Take <code>n</code> units from the bucket, sleeping until they are
+   * available.  A caller may take more than the bucket holds; the debt
+   * delays it and every caller after it.
+   *
+   * @param n Units to take
+   * @exception InterruptedException If interrupted while sleeping
+   */
+  public void acquire(long n) throws InterruptedException
+    {
+      long wait;
+      synchronized (this)
+	{
+	  if (rate == 0)
+	    {
+	      return;
+	    }
+	  long now = System.nanoTime();
+	  available = Math.min(available + (now - last) * (double)rate / 1e9, rate);
+	  last = now;
+	  available -= n;
+	  wait = available < 0 ? (long)(-available * 1e9 / rate) : 0;
+	}
+      if (wait > 0)
+	{
+	  Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+	}
+    }
+
+
+  private long rate;		// units per second, 0 = unlimited
+  private double available;	// units in the bucket, negative if in debt
+  private long last;		// time of last refill, System.nanoTime()
+}
@@ -0,0 +1,76 @@
+// Throttle.java
+//
+// Limits the bytes and the file operations of I/O done on behalf of
+// several threads.
+
+package pri.nightmare.utils;
+
+public class Throttle
+{
+  /**
+   * Throttle that never waits
+   */
+  public static final Throttle NONE = new Throttle(null, null);
+
+
+  /**
+   * Create a throttle
+   *
+   * @param bytes Limits bytes read and written, or null for no limit
+   * @param operations Limits opens, creates, deletes and renames of files,
+   *        or null for no limit
+   */
+  public Throttle(RateLimiter bytes, RateLimiter operations)
+    {
+      this.bytes = bytes;
+      this.operations = operations;
+    }
+
+
+  /**
+   * Account for <code>n</code> bytes read or written, waiting as long as
+   * the byte rate requires
+   *
+   * @param n Bytes transferred
+   * @exception java.io.InterruptedIOException If interrupted while waiting
+   */
+  public void bytes(long n) throws java.io.InterruptedIOException
+    {
+      acquire(bytes, n);
+    }
+
+
+  /**
+   * Account for one open, create, delete or rename, waiting as long as the
+   * operation rate requires
+   *
+   * @exception java.io.InterruptedIOException If interrupted while waiting
+   */
+  public void operation() throws java.io.InterruptedIOException
+    {
+      acquire(operations, 1);
+    }
+
+
+  private static void acquire(RateLimiter limiter, long n)
+    throws java.io.InterruptedIOException
+    {
+      if (limiter == null || n <= 0)
+	{
+	  return;
+	}
+      try
+	{
+	  limiter.acquire(n);
+	}
+      catch (InterruptedException e)
+	{
+	  Thread.currentThread().interrupt();
+	  throw new java.io.InterruptedIOException("Interrupted while throttled");
+	}
+    }
+
+
+  private RateLimiter bytes;		// null = unlimited
+  private RateLimiter operations;	// null = unlimited
+}
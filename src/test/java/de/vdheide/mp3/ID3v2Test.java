@@ -0,0 +1,328 @@
+// ID3v2Test.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+
+package de.vdheide.mp3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Writes ID3v2.4 tags to files that have none, with text frames in the
+ * encoding <code>TextCodec.toSmallest</code> picks for Latin, Cyrillic,
+ * CJK and mixed text, and checks the bytes in the file against the
+ * layout of ID3v2.4: synchsafe sizes, frame flags where 2.4 has them,
+ * and the encoding byte of every frame.  The tag must read back the same.
+ */
+public class ID3v2Test {
+
+	private static final String LATIN = "Caf\u00e9 del Mar";
+	private static final String CYRILLIC = "\u0412\u0438\u043a\u0442\u043e\u0440 \u0426\u043e\u0439";
+	private static final String CJK = "\u5468\u6770\u4f26";
+	private static final String MIXED = "Bj\u00f6rk \u5468\u6770\u4f26 \u0426\u043e\u0439";
+
+	private File dir;
+	private File file;
+	private byte[] audio;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("ID3v2Test").toFile();
+		file = new File(dir, "track.mp3");
+		audio = new byte[2000];
+		new Random(1).nextBytes(audio);
+		audio[0] = (byte) 0xff;		// frame sync
+		audio[1] = (byte) 0xfb;
+		write(audio);
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		for (int i = 0; files != null && i < files.length; i++) {
+			files[i].delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void choosesEncodingOfEveryFrame() throws Exception {
+		// reads the same in ISO-8859-1: encoding 0, one terminator
+		byte[] latin = TextCodec.toSmallest(LATIN, "windows-1252", true);
+		assertEquals(0, latin[0]);
+		assertEquals(1 + 12 + 1, latin.length);
+		// two bytes a letter in UTF-8 and UTF-16, UTF-8 has no mark
+		byte[] cyrillic = TextCodec.toSmallest(CYRILLIC, "windows-1251", true);
+		assertEquals(3, cyrillic[0]);
+		assertEquals(1 + 19 + 1, cyrillic.length);
+		// three bytes in UTF-8, two in UTF-16 with its mark
+		byte[] cjk = TextCodec.toSmallest(CJK, "GBK", true);
+		assertEquals(1, cjk[0]);
+		assertEquals(1 + 2 + 6 + 2, cjk.length);
+		// 23 bytes in UTF-8 against 2 + 26 in UTF-16
+		byte[] mixed = TextCodec.toSmallest(MIXED, "GBK", true);
+		assertEquals(3, mixed[0]);
+		assertEquals(1 + 23 + 1, mixed.length);
+		// without UTF-8, as in ID3v2.3
+		assertEquals(1, TextCodec.toSmallest(CYRILLIC, "windows-1251", false)[0]);
+		assertEquals(1, TextCodec.toSmallest(MIXED, "GBK", false)[0]);
+	}
+
+	@Test
+	public void writesV24Tag() throws Exception {
+		byte[] title = TextCodec.toSmallest(LATIN, "windows-1252", true);
+		byte[] artist = TextCodec.toSmallest(CYRILLIC, "windows-1251", true);
+		byte[] album = TextCodec.toSmallest(CJK, "GBK", true);
+		byte[] subtitle = TextCodec.toSmallest(MIXED, "GBK", true);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 40; i++) {
+			sb.append(CJK);
+		}
+		// 1 + 2 + 240 + 2 bytes, more than 7 bits of size
+		byte[] lyricist = TextCodec.toSmallest(sb.toString(), "GBK", true);
+		byte[] copyright = TextCodec.toSmallest("(c) 2026", "GBK", true);
+
+		ID3v2 tag = new ID3v2(file);
+		assertFalse(tag.hasTag());
+		assertEquals(3, tag.getVersion());
+		tag.setNewTagVersion(4);
+		assertEquals(4, tag.getVersion());
+		assertEquals(0, tag.getRevision());
+		tag.addFrame(new ID3v2Frame("TIT2", title, false, false, false,
+			ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.addFrame(new ID3v2Frame("TPE1", artist, false, false, false,
+			ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.addFrame(new ID3v2Frame("TALB", album, false, false, false,
+			ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.addFrame(new ID3v2Frame("TIT3", subtitle, false, false, false,
+			ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.addFrame(new ID3v2Frame("TEXT", lyricist, false, false, false,
+			ID3v2Frame.DO_COMPRESS, (byte) 0, (byte) 0));
+		tag.addFrame(new ID3v2Frame("TCOP", copyright, true, false, true,
+			ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.update();
+
+		byte[] bytes = read();
+		assertEquals('I', bytes[0]);
+		assertEquals('D', bytes[1]);
+		assertEquals('3', bytes[2]);
+		assertEquals(4, bytes[3]);
+		assertEquals(0, bytes[4]);
+		assertEquals(0, bytes[5]);
+		int size = synchsafe(bytes, 6);
+		assertAudio(bytes, 10 + size);
+
+		int pos = 10;
+		pos = assertFrame(bytes, pos, "TIT2", 0, 0, title);
+		pos = assertFrame(bytes, pos, "TPE1", 0, 0, artist);
+		pos = assertFrame(bytes, pos, "TALB", 0, 0, album);
+		pos = assertFrame(bytes, pos, "TIT3", 0, 0, subtitle);
+
+		// 245 bytes: 0x00 0x00 0x01 0x75 synchsafe, 0x00 0x00 0x00 0xf5 in 2.3
+		assertEquals(245, lyricist.length);
+		assertEquals('T', bytes[pos]);
+		assertEquals(0, bytes[pos + 8]);
+		assertEquals(0x08 | 0x01, bytes[pos + 9]);		// compressed, data length indicator
+		int compressed = synchsafe(bytes, pos + 4);
+		assertEquals(0, bytes[pos + 10]);
+		assertEquals(0, bytes[pos + 11]);
+		assertEquals(0x01, bytes[pos + 12]);
+		assertEquals(0x75, bytes[pos + 13]);
+		pos += 10 + compressed;
+
+		// tag alter preservation and read only, 0x80 | 0x20 in 2.3
+		pos = assertFrame(bytes, pos, "TCOP", 0x40 | 0x10, 0, copyright);
+		assertEquals(10 + size, pos);
+
+		// read back
+		ID3v2 read = new ID3v2(file);
+		assertEquals(4, read.getVersion());
+		assertEquals(0, read.getRevision());
+		assertArrayEquals(title, frame(read, "TIT2").getContent());
+		assertArrayEquals(artist, frame(read, "TPE1").getContent());
+		assertArrayEquals(album, frame(read, "TALB").getContent());
+		assertArrayEquals(subtitle, frame(read, "TIT3").getContent());
+		ID3v2Frame text = frame(read, "TEXT");
+		assertTrue(text.getCompression());
+		assertArrayEquals(lyricist, text.getContent());
+		ID3v2Frame tcop = frame(read, "TCOP");
+		assertTrue(tcop.getTagAlterPreservation());
+		assertFalse(tcop.getFileAlterPreservation());
+		assertTrue(tcop.getReadOnly());
+		assertArrayEquals(copyright, tcop.getContent());
+
+		assertEquals(LATIN, new String(title, 1, title.length - 2, "ISO-8859-1"));
+		assertEquals(CYRILLIC, new String(artist, 1, artist.length - 2, "UTF-8"));
+		assertEquals(CJK, new String(album, 1, album.length - 3, "UTF-16"));
+		assertEquals(MIXED, new String(subtitle, 1, subtitle.length - 2, "UTF-8"));
+
+		TagLayout layout = new TagLayout(file);
+		assertEquals(4, layout.getVersion());
+		assertEquals(size, layout.getTagSize());
+		assertEquals(6, layout.getFrameCount());
+		assertEquals(1, layout.getCompressedFrames());
+		assertEquals(Arrays.asList(new String[] {"TIT2", "TCOP"}), layout.getNonUnicodeIDs());
+		assertEquals(title.length, layout.getFrames().get(0).getSize());
+		assertEquals(album.length, layout.getFrames().get(2).getSize());
+		assertEquals(0x40 | 0x10, layout.getFrames().get(5).getFlags() >> 8);
+	}
+
+	@Test
+	public void rewritesV24Tag() throws Exception {
+		ID3v2 tag = new ID3v2(file);
+		tag.setNewTagVersion(4);
+		tag.addFrame(new ID3v2Frame("TIT2", TextCodec.toSmallest(CJK, "GBK", true),
+			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.update();
+		byte[] before = read();
+
+		// the same frames again are not written
+		ID3v2 again = new ID3v2(file);
+		again.removeFrame("TIT2");
+		again.addFrame(new ID3v2Frame("TIT2", TextCodec.toSmallest(CJK, "GBK", true),
+			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		again.update();
+		assertArrayEquals(before, read());
+
+		// another title, still as 2.4
+		ID3v2 other = new ID3v2(file);
+		other.removeFrame("TIT2");
+		byte[] title = TextCodec.toSmallest(CYRILLIC, "windows-1251", true);
+		other.addFrame(new ID3v2Frame("TIT2", title,
+			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		other.update();
+		byte[] after = read();
+		assertEquals(4, after[3]);
+		assertEquals(10 + title.length, synchsafe(after, 6));
+		assertFrame(after, 10, "TIT2", 0, 0, title);
+		assertAudio(after, 10 + 10 + title.length);
+	}
+
+	@Test
+	public void keepsVersionOfTagInFile() throws Exception {
+		ID3v2 tag = new ID3v2(file);
+		tag.addFrame(new ID3v2Frame("TIT2", TextCodec.toSmallest(CJK, "GBK", false),
+			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.update();
+		assertEquals(3, read()[3]);
+
+		ID3v2 read = new ID3v2(file);
+		read.setNewTagVersion(4);
+		assertEquals(3, read.getVersion());
+		read.removeFrame("TIT2");
+		byte[] title = TextCodec.toSmallest(LATIN, "windows-1252", false);
+		read.addFrame(new ID3v2Frame("TIT2", title, false, false, true,
+			ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		read.update();
+		byte[] bytes = read();
+		assertEquals(3, bytes[3]);
+		// 2.3 frame size and flags: plain integer, read only 0x20
+		assertEquals('T', bytes[10]);
+		assertEquals(title.length, (bytes[14] & 0xff) << 24 | (bytes[15] & 0xff) << 16
+			| (bytes[16] & 0xff) << 8 | bytes[17] & 0xff);
+		assertEquals(0x20, bytes[18]);
+	}
+
+	@Test
+	public void refusesOtherNewVersions() throws Exception {
+		ID3v2 tag = new ID3v2(file);
+		try {
+			tag.setNewTagVersion(2);
+			fail("ID3v2.2 tags cannot be written");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(3, tag.getVersion());
+	}
+
+	@Test
+	public void copiesAudioAddedAfterWalk() throws Exception {
+		ID3v2 tag = new ID3v2(file);
+		tag.setFileLength(audio.length);
+		byte[] more = new byte[100000];
+		new Random(2).nextBytes(more);
+		audio = Arrays.copyOf(audio, audio.length + more.length);
+		System.arraycopy(more, 0, audio, audio.length - more.length, more.length);
+		write(audio);
+
+		byte[] title = TextCodec.toSmallest(LATIN, "ISO-8859-1", false);
+		tag.addFrame(new ID3v2Frame("TIT2", title,
+			false, false, false, ID3v2Frame.NO_COMPRESSION, (byte) 0, (byte) 0));
+		tag.update();
+		byte[] bytes = read();
+		assertAudio(bytes, 10 + 10 + title.length);
+	}
+
+	/********** Private methods **********/
+
+	/**
+	 * Check the ID3v2.4 frame at <code>pos</code>
+	 *
+	 * @return Position after the frame
+	 */
+	private static int assertFrame(byte[] bytes, int pos, String id, int status, int format,
+		byte[] content) {
+		assertEquals(id, new String(bytes, pos, 4));
+		assertEquals(id, content.length, synchsafe(bytes, pos + 4));
+		for (int i = 4; i < 8; i++) {
+			assertEquals(id, 0, bytes[pos + i] & 0x80);
+		}
+		assertEquals(id, (byte) status, bytes[pos + 8]);
+		assertEquals(id, (byte) format, bytes[pos + 9]);
+		assertArrayEquals(id, content,
+			Arrays.copyOfRange(bytes, pos + 10, pos + 10 + content.length));
+		return pos + 10 + content.length;
+	}
+
+	/**
+	 * Check that <code>bytes</code> end with the audio data, after the tag
+	 * ending at <code>end</code> and the padding written after it
+	 */
+	private void assertAudio(byte[] bytes, int end) {
+		int start = bytes.length - audio.length;
+		assertTrue(start >= end);
+		for (int i = end; i < start; i++) {
+			assertEquals(0, bytes[i]);
+		}
+		assertArrayEquals(audio, Arrays.copyOfRange(bytes, start, bytes.length));
+	}
+
+	private static int synchsafe(byte[] in, int off) {
+		for (int i = off; i < off + 4; i++) {
+			assertEquals(0, in[i] & 0x80);
+		}
+		return (in[off] & 0x7f) << 21 | (in[off + 1] & 0x7f) << 14
+			| (in[off + 2] & 0x7f) << 7 | in[off + 3] & 0x7f;
+	}
+
+	private static ID3v2Frame frame(ID3v2 tag, String id) throws ID3v2Exception {
+		return (ID3v2Frame) tag.getFrame(id).elementAt(0);
+	}
+
+	private byte[] read() throws IOException {
+		return Files.readAllBytes(file.toPath());
+	}
+
+	private void write(byte[] bytes) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+}
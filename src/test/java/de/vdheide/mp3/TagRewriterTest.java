@@ -0,0 +1,435 @@
+// TagRewriterTest.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+
+package de.vdheide.mp3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import pri.nightmare.utils.Throttle;
+
+/**
+ * Rewrites tags of several layouts and checks that the frames replaced
+ * change, and that all other frames, the padding and the audio data are
+ * copied byte by byte.  The file must survive a rewrite that fails.
+ */
+public class TagRewriterTest {
+
+	private File dir;
+	private File file;
+	private byte[] audio;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("TagRewriterTest").toFile();
+		file = new File(dir, "track.mp3");
+		audio = new byte[5000];
+		new Random(1).nextBytes(audio);
+		audio[0] = (byte) 0xff;		// frame sync
+		audio[1] = (byte) 0xfb;
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		for (int i = 0; files != null && i < files.length; i++) {
+			files[i].delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void rewritesV23() throws IOException {
+		byte[] picture = new byte[300];
+		new Random(2).nextBytes(picture);
+		write(tag(3, 0, 100,
+			frame3("TIT2", text("old")),
+			frame3("APIC", picture),
+			frame3("TPE1", text("artist"))));
+
+		byte[] title = text("a title longer than the old one");
+		rewrite("TIT2", title);
+
+		TagLayout layout = new TagLayout(file);
+		assertEquals(3, layout.getVersion());
+		assertIds(layout, new String[] {"TIT2", "APIC", "TPE1"});
+		assertArrayEquals(title, content(layout, "TIT2"));
+		assertArrayEquals(picture, content(layout, "APIC"));
+		assertArrayEquals(text("artist"), content(layout, "TPE1"));
+		assertEquals(100, layout.getPadding());
+		assertAudio(layout);
+	}
+
+	@Test
+	public void rewritesV22() throws IOException {
+		write(tag(2, 0, 50,
+			frame2("TT2", text("old")),
+			frame2("TP1", text("artist"))));
+
+		byte[] title = text("new title");
+		rewrite("TT2", title);
+
+		TagLayout layout = new TagLayout(file);
+		assertEquals(2, layout.getVersion());
+		assertIds(layout, new String[] {"TT2", "TP1"});
+		assertArrayEquals(title, content(layout, "TT2"));
+		assertArrayEquals(text("artist"), content(layout, "TP1"));
+		assertEquals(50, layout.getPadding());
+		assertAudio(layout);
+	}
+
+	@Test
+	public void keepsPaddingWhenShrinking() throws IOException {
+		write(tag(3, 0, 1024,
+			frame3("TALB", text("a rather long album title")),
+			frame3("TRCK", text("7"))));
+
+		rewrite("TALB", text("short"));
+
+		TagLayout layout = new TagLayout(file);
+		assertArrayEquals(text("short"), content(layout, "TALB"));
+		assertArrayEquals(text("7"), content(layout, "TRCK"));
+		assertEquals(1024, layout.getPadding());
+		assertAudio(layout);
+	}
+
+	@Test
+	public void rewritesWithoutPadding() throws IOException {
+		write(tag(3, 0, 0, frame3("TIT2", text("old"))));
+
+		rewrite("TIT2", text("new"));
+
+		TagLayout layout = new TagLayout(file);
+		assertArrayEquals(text("new"), content(layout, "TIT2"));
+		assertEquals(0, layout.getPadding());
+		assertAudio(layout);
+	}
+
+	@Test
+	public void copiesUnsynchronizedFrame() throws IOException {
+		// v2.4 frame unsynchronized on its own: copied as it is
+		byte[] unsynchronized = {0, (byte) 0xff, 0, (byte) 0xe0, 'x'};
+		write(tag(4, 0, 20,
+			frame4("TIT2", 0, text("old")),
+			frame4("TPE1", 0x02, unsynchronized)));
+
+		TagLayout before = new TagLayout(file);
+		TagRewriter rewriter = new TagRewriter(file, before, Throttle.NONE);
+		assertFalse(rewriter.isReplaceable(frame(before, "TPE1")));
+		rewriter.replace(frame(before, "TIT2"), text("new"));
+		rewriter.write();
+
+		TagLayout layout = new TagLayout(file);
+		assertEquals(4, layout.getVersion());
+		assertArrayEquals(text("new"), content(layout, "TIT2"));
+		assertArrayEquals(unsynchronized, content(layout, "TPE1"));
+		assertEquals(0x02, frame(layout, "TPE1").getFlags());
+		assertAudio(layout);
+	}
+
+	@Test
+	public void refusesUnsynchronizedTag() throws IOException {
+		byte[] original = tag(3, 0x80, 10, frame3("TIT2", text("old")));
+		write(original);
+		try {
+			new TagRewriter(file, new TagLayout(file), Throttle.NONE);
+			fail("unsynchronized tag accepted");
+		} catch (IOException expected) {
+		}
+		assertArrayEquals(concat(original, audio), read(file));
+	}
+
+	@Test
+	public void copiesWhenRenameFails() throws IOException {
+		write(tag(3, 0, 10, frame3("TIT2", text("old"))));
+		TagLayout before = new TagLayout(file);
+		TagRewriter rewriter = new FailingRewriter(file, before, 1, false);
+		rewriter.replace(frame(before, "TIT2"), text("new"));
+		rewriter.write();
+
+		TagLayout layout = new TagLayout(file);
+		assertArrayEquals(text("new"), content(layout, "TIT2"));
+		assertAudio(layout);
+		assertEquals(1, dir.listFiles().length);
+	}
+
+	@Test
+	public void keepsFileWhenCopyFails() throws IOException {
+		byte[] tag = tag(3, 0, 10, frame3("TIT2", text("old")));
+		write(tag);
+		byte[] original = concat(tag, audio);
+		TagLayout before = new TagLayout(file);
+		TagRewriter rewriter = new FailingRewriter(file, before, 1, true);
+		rewriter.replace(frame(before, "TIT2"), text("new"));
+		try {
+			rewriter.write();
+			fail("failed copy not reported");
+		} catch (IOException expected) {
+		}
+
+		// the old file is back, nothing is left behind
+		assertArrayEquals(original, read(file));
+		assertEquals(1, dir.listFiles().length);
+	}
+
+	@Test
+	public void keepsBothFilesWhenRestoreFails() throws IOException {
+		byte[] tag = tag(3, 0, 10, frame3("TIT2", text("old")));
+		write(tag);
+		byte[] original = concat(tag, audio);
+		TagLayout before = new TagLayout(file);
+		TagRewriter rewriter = new FailingRewriter(file, before, 2, true);
+		rewriter.replace(frame(before, "TIT2"), text("new"));
+		try {
+			rewriter.write();
+			fail("failed copy not reported");
+		} catch (IOException expected) {
+		}
+
+		// the old file and the new one are both kept under other names
+		File[] left = dir.listFiles();
+		assertEquals(2, left.length);
+		File old = Arrays.equals(original, read(left[0])) ? left[0] : left[1];
+		File rewritten = old == left[0] ? left[1] : left[0];
+		assertArrayEquals(original, read(old));
+		TagLayout layout = new TagLayout(rewritten);
+		assertArrayEquals(text("new"), new TagRewriter(rewritten, layout, Throttle.NONE)
+			.read(frame(layout, "TIT2")));
+	}
+
+	@Test
+	public void copiesAudioAddedAfterLayout() throws IOException {
+		write(tag(3, 0, 10, frame3("TIT2", text("old"))));
+		TagLayout before = new TagLayout(file);
+		byte[] more = new byte[20000];
+		new Random(3).nextBytes(more);
+		append(more);
+		audio = concat(audio, more);
+
+		TagRewriter rewriter = new TagRewriter(file, before, Throttle.NONE);
+		rewriter.replace(frame(before, "TIT2"), text("new"));
+		rewriter.write();
+
+		TagLayout layout = new TagLayout(file);
+		assertArrayEquals(text("new"), content(layout, "TIT2"));
+		assertAudio(layout);
+	}
+
+	@Test
+	public void refusesFileShorterThanLayout() throws IOException {
+		byte[] tag = tag(3, 0, 10, frame3("TIT2", text("old")));
+		write(tag);
+		TagLayout before = new TagLayout(file);
+		audio = Arrays.copyOf(audio, audio.length / 2);
+		write(tag);
+
+		TagRewriter rewriter = new TagRewriter(file, before, Throttle.NONE);
+		rewriter.replace(frame(before, "TIT2"), text("new"));
+		try {
+			rewriter.write();
+			fail("truncated file not reported");
+		} catch (IOException expected) {
+		}
+		assertArrayEquals(concat(tag, audio), read(file));
+		assertEquals(1, dir.listFiles().length);
+	}
+
+	/********** Private methods **********/
+
+	/**
+	 * Replace the content of one frame of <code>file</code>
+	 */
+	private void rewrite(String id, byte[] content) throws IOException {
+		TagLayout layout = new TagLayout(file);
+		TagRewriter rewriter = new TagRewriter(file, layout, Throttle.NONE);
+		rewriter.replace(frame(layout, id), content);
+		rewriter.write();
+	}
+
+	private void assertIds(TagLayout layout, String[] ids) {
+		assertEquals(ids.length, layout.getFrames().size());
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], layout.getFrames().get(i).getID());
+		}
+	}
+
+	/**
+	 * Check that the audio data follows the tag unchanged
+	 */
+	private void assertAudio(TagLayout layout) throws IOException {
+		byte[] bytes = read(file);
+		int start = (int) (10 + layout.getTagSize());
+		assertEquals(start + audio.length, bytes.length);
+		assertArrayEquals(audio, Arrays.copyOfRange(bytes, start, bytes.length));
+		for (int i = (int) layout.getFramesEnd(); i < start; i++) {
+			assertEquals("padding", 0, bytes[i]);
+		}
+	}
+
+	private byte[] content(TagLayout layout, String id) throws IOException {
+		return new TagRewriter(file, layout, Throttle.NONE).read(frame(layout, id));
+	}
+
+	private static TagLayout.Frame frame(TagLayout layout, String id) {
+		for (int i = 0; i < layout.getFrames().size(); i++) {
+			TagLayout.Frame frame = layout.getFrames().get(i);
+			if (frame.getID().equals(id)) {
+				return frame;
+			}
+		}
+		fail("no frame " + id);
+		return null;
+	}
+
+	private void write(byte[] tag) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(tag);
+			out.write(audio);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void append(byte[] bytes) throws IOException {
+		FileOutputStream out = new FileOutputStream(file, true);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte[] read(File f) throws IOException {
+		return Files.readAllBytes(f.toPath());
+	}
+
+	/**
+	 * @return Tag header of <code>version</code> and <code>flags</code>,
+	 *         the frames and <code>padding</code> zero bytes
+	 */
+	private static byte[] tag(int version, int flags, int padding, byte[]... frames) {
+		ByteArrayOutputStream frames_out = new ByteArrayOutputStream();
+		for (int i = 0; i < frames.length; i++) {
+			frames_out.write(frames[i], 0, frames[i].length);
+		}
+		int size = frames_out.size() + padding;
+		byte[] head = {'I', 'D', '3', (byte) version, 0, (byte) flags, 0, 0, 0, 0};
+		synchsafe(head, 6, size);
+		return concat(concat(head, frames_out.toByteArray()), new byte[padding]);
+	}
+
+	private static byte[] frame2(String id, byte[] content) {
+		byte[] head = new byte[6];
+		ascii(id, head);
+		head[3] = (byte) (content.length >> 16);
+		head[4] = (byte) (content.length >> 8);
+		head[5] = (byte) content.length;
+		return concat(head, content);
+	}
+
+	private static byte[] frame3(String id, byte[] content) {
+		byte[] head = new byte[10];
+		ascii(id, head);
+		head[4] = (byte) (content.length >> 24);
+		head[5] = (byte) (content.length >> 16);
+		head[6] = (byte) (content.length >> 8);
+		head[7] = (byte) content.length;
+		return concat(head, content);
+	}
+
+	private static byte[] frame4(String id, int status, byte[] content) {
+		byte[] head = new byte[10];
+		ascii(id, head);
+		synchsafe(head, 4, content.length);
+		head[9] = (byte) status;
+		return concat(head, content);
+	}
+
+	/**
+	 * @return Content of a text frame in ISO-8859-1
+	 */
+	private static byte[] text(String s) {
+		byte[] b = new byte[1 + s.length()];
+		for (int i = 0; i < s.length(); i++) {
+			b[1 + i] = (byte) s.charAt(i);
+		}
+		return b;
+	}
+
+	private static void ascii(String id, byte[] out) {
+		for (int i = 0; i < id.length(); i++) {
+			out[i] = (byte) id.charAt(i);
+		}
+	}
+
+	private static void synchsafe(byte[] out, int off, int value) {
+		out[off] = (byte) ((value >> 21) & 0x7f);
+		out[off + 1] = (byte) ((value >> 14) & 0x7f);
+		out[off + 2] = (byte) ((value >> 7) & 0x7f);
+		out[off + 3] = (byte) (value & 0x7f);
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		byte[] c = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, c, a.length, b.length);
+		return c;
+	}
+
+	/********** Private classes **********/
+
+	/**
+	 * Rewriter whose first <code>failures</code> renames to the file fail,
+	 * and whose copies fail halfway if <code>failCopy</code> is true
+	 */
+	private static class FailingRewriter extends TagRewriter {
+		FailingRewriter(File file, TagLayout layout, int failures, boolean failCopy)
+			throws IOException {
+			super(file, layout, Throttle.NONE);
+			this.target = file;
+			this.failures = failures;
+			this.failCopy = failCopy;
+		}
+
+		boolean rename(File from, File to) throws IOException {
+			if (to.equals(target) && failures > 0) {
+				failures--;
+				return false;
+			}
+			return super.rename(from, to);
+		}
+
+		void copyFile(File from, File to) throws IOException {
+			if (!failCopy) {
+				super.copyFile(from, to);
+				return;
+			}
+			FileOutputStream out = new FileOutputStream(to);
+			try {
+				out.write(new byte[100]);
+			} finally {
+				out.close();
+			}
+			throw new IOException("No space left on device");
+		}
+
+		private final File target;
+		private int failures;
+		private final boolean failCopy;
+	}
+}
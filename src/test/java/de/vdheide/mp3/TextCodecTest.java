@@ -0,0 +1,270 @@
+// TextCodecTest.java
+//
+// de.vdheide.mp3: Access MP3 properties, ID3 and ID3v2 tags
+
+package de.vdheide.mp3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Decodes and encodes text in the charsets of ID3v2 and in the charsets
+ * of untagged legacy text, and checks every result against what
+ * <code>new String</code> and <code>String.getBytes</code> give, as
+ * <code>Parser</code> and <code>ByteBuilder</code> used to call them.
+ */
+public class TextCodecTest {
+
+	private static final String[] TEXTS = {
+		"",
+		"Hotel California",
+		"Caf\u00e9 del Mar - Bj\u00f6rk",
+		"\u5468\u6770\u4f26 - \u4e03\u91cc\u9999",
+		"\u5b87\u591a\u7530\u30d2\u30ab\u30eb",
+		"\u0412\u0438\u043a\u0442\u043e\u0440 \u0426\u043e\u0439",
+		"clef \ud834\udd1e and \u20ac",
+		"unpaired \ud834 and \udd1e",
+	};
+
+	private static final String[] CHARSETS = {
+		"ISO-8859-1", "UTF-16", "UTF-16BE", "UTF-16LE", "UTF-8",
+		"GBK", "Big5", "Shift_JIS", "windows-1251", "KOI8-R"
+	};
+
+	@Test
+	public void decodesLikeNewString() throws Exception {
+		for (String charset : CHARSETS) {
+			for (String text : TEXTS) {
+				assertDecoded(text.getBytes(charset), charset);
+			}
+		}
+	}
+
+	@Test
+	public void decodesUtf16WithAndWithoutMark() throws Exception {
+		for (String text : TEXTS) {
+			assertDecoded(text.getBytes("UTF-16BE"), "UTF-16");
+			assertDecoded(concat(new byte[] { (byte) 0xfe, (byte) 0xff }, text.getBytes("UTF-16BE")),
+				"UTF-16");
+			assertDecoded(concat(new byte[] { (byte) 0xff, (byte) 0xfe }, text.getBytes("UTF-16LE")),
+				"UTF-16");
+		}
+		// odd byte at the end, mark alone
+		assertDecoded(new byte[] { (byte) 0xff, (byte) 0xfe, 0x41, 0, 0x42 }, "UTF-16");
+		assertDecoded(new byte[] { (byte) 0xfe, (byte) 0xff }, "UTF-16");
+		assertDecoded(new byte[] { 0x41 }, "UTF-16");
+	}
+
+	@Test
+	public void decodesDamagedTextLikeNewString() throws Exception {
+		Random random = new Random(22);
+		for (String charset : CHARSETS) {
+			for (int i = 0; i < 200; i++) {
+				byte[] in = new byte[random.nextInt(24)];
+				random.nextBytes(in);
+				assertDecoded(in, charset);
+			}
+		}
+	}
+
+	@Test
+	public void writesLikeGetBytes() throws Exception {
+		for (String charset : CHARSETS) {
+			for (String text : TEXTS) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				TextCodec.write(text, charset, out);
+				assertArrayEquals(charset+": "+text, text.getBytes(charset), out.toByteArray());
+			}
+		}
+	}
+
+	@Test
+	public void parsesEveryEncodingByte() throws Exception {
+		for (byte encoding = 0; encoding <= 3; encoding++) {
+			for (String text : TEXTS) {
+				byte[][] raws = raw(encoding, text);
+				for (int r = 0; r < raws.length; r++) {
+					// description and value, as in a TXXX frame
+					byte[] terminator = new byte[encoding == 0 ? 1 : 2];
+					byte[] in = concat(new byte[] { encoding }, raws[r], terminator, raws[r], terminator);
+					String charset = encoding == 0 ? "ISO8859_1" : "Unicode";
+
+					// the terminator is searched for at any byte, so compare
+					// whatever the parser takes for the text
+					Parser parser = new Parser(in, true);
+					for (int k = 0; k < 2; k++) {
+						int start = parser.getPosition();
+						String parsed = parser.parseText();
+						int end = parser.getPosition() - terminator.length;
+						assertEquals(new String(in, start, end - start, charset), parsed);
+						if (k == 0 && r == 0 && encoding != 3) {
+							assertEquals(new String(raws[r], charset), parsed);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void buildsLikeGetBytes() throws Exception {
+		for (String text : TEXTS) {
+			ByteBuilder none = new ByteBuilder(ByteBuilder.NONE);
+			none.put(text);
+			assertArrayEquals(text.getBytes("ISO8859_1"), none.getBytes());
+
+			ByteBuilder iso = new ByteBuilder(ByteBuilder.ISO);
+			iso.put(text);
+			assertArrayEquals(concat(new byte[] { 0 }, text.getBytes("ISO8859_1")), iso.getBytes());
+
+			ByteBuilder unicode = new ByteBuilder(ByteBuilder.UNICODE);
+			unicode.put(text);
+			assertArrayEquals(concat(new byte[] { 1 }, text.getBytes("Unicode")), unicode.getBytes());
+		}
+	}
+
+	@Test
+	public void readsBackWhatItBuilds() throws Exception {
+		for (String text : TEXTS) {
+			if (text.indexOf('\ud834') >= 0 && text.indexOf("\ud834\udd1e") < 0) {
+				continue;		// unpaired surrogates are replaced
+			}
+			ByteBuilder unicode = new ByteBuilder(ByteBuilder.UNICODE);
+			unicode.put(text);
+			assertEquals(text, new Parser(unicode.getBytes(), true).parseText());
+		}
+		ByteBuilder iso = new ByteBuilder(ByteBuilder.ISO);
+		iso.put(TEXTS[2]);
+		assertEquals(TEXTS[2], new Parser(iso.getBytes(), true).parseText());
+	}
+
+	@Test
+	public void convertsToUnicodeFrame() throws Exception {
+		for (String charset : CHARSETS) {
+			for (String text : TEXTS) {
+				byte[] in = text.getBytes(charset);
+				String decoded = new String(in, charset);
+				byte[] expected = decoded.length() == 0 ? new byte[] { 1, 0, 0 }
+					: concat(new byte[] { 1, (byte) 0xff, (byte) 0xfe },
+						decoded.getBytes("UTF-16LE"), new byte[2]);
+				assertArrayEquals(charset+": "+text,
+					expected, TextCodec.toUnicode(in, 0, in.length, charset, 2));
+			}
+		}
+	}
+
+	@Test
+	public void choosesSmallestEncoding() throws Exception {
+		// Latin-1 text reads the same in ISO-8859-1
+		assertArrayEquals(concat(new byte[] { 0 }, "Bj\u00f6rk".getBytes("ISO-8859-1"), new byte[1]),
+			TextCodec.toSmallest("Bj\u00f6rk", "ISO-8859-1", true));
+		// but not in a charset where its bytes are other letters
+		assertEquals(1, TextCodec.toSmallest("Bj\u00f6rk", "windows-1251", false)[0]);
+		// CJK takes three bytes in UTF-8 and two in UTF-16
+		assertEquals(1, TextCodec.toSmallest(TEXTS[4], "GBK", true)[0]);
+		// Cyrillic takes two in both, UTF-8 wins by the mark
+		byte[] cyrillic = TextCodec.toSmallest(TEXTS[5], "windows-1251", true);
+		assertArrayEquals(concat(new byte[] { 3 }, TEXTS[5].getBytes("UTF-8"), new byte[1]), cyrillic);
+		assertEquals(1, TextCodec.toSmallest(TEXTS[5], "windows-1251", false)[0]);
+		// zero characters at the end are dropped
+		assertArrayEquals(new byte[] { 0, 'a', 0 }, TextCodec.toSmallest("a\u0000\u0000", "GBK", true));
+	}
+
+	@Test
+	public void knowsAsciiCompatibleCharsets() {
+		assertTrue(TextCodec.isAsciiCompatible("ISO-8859-1"));
+		assertTrue(TextCodec.isAsciiCompatible("GBK"));
+		assertTrue(TextCodec.isAsciiCompatible("windows-1251"));
+		assertFalse(TextCodec.isAsciiCompatible("UTF-16"));
+		assertFalse(TextCodec.isAsciiCompatible("UTF-16BE"));
+	}
+
+	@Test
+	public void decodesOnManyThreadsAtOnce() throws Exception {
+		final byte[] gbk = TEXTS[3].getBytes("GBK");
+		final byte[] sjis = TEXTS[4].getBytes("Shift_JIS");
+		final List<String> wrong = new ArrayList<String>();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				public void run() {
+					for (int i = 0; i < 2000; i++) {
+						String a = TextCodec.decode(gbk, 0, gbk.length, "GBK");
+						String b = TextCodec.decode(sjis, 0, sjis.length, "Shift_JIS");
+						if (!a.equals(TEXTS[3]) || !b.equals(TEXTS[4])) {
+							synchronized (wrong) {
+								wrong.add(a+" "+b);
+							}
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, wrong.size());
+	}
+
+	/********** Private methods **********/
+
+	private static void assertDecoded(byte[] in, String charset) throws IOException {
+		// decode from the middle of a larger array
+		byte[] padded = concat(new byte[] { 0x7f, 0x20 }, in, new byte[] { 0x20 });
+		assertEquals(charset+" "+hex(in), new String(in, charset),
+			TextCodec.decode(padded, 2, in.length, charset));
+	}
+
+	/**
+	 * @return Text as a frame with <code>encoding</code> may hold it:
+	 *         UTF-16 with either mark or big endian without, and UTF-8
+	 *         for encoding 3
+	 */
+	private static byte[][] raw(byte encoding, String text) throws IOException {
+		switch (encoding) {
+		case 0:
+			return new byte[][] { text.getBytes("ISO-8859-1") };
+		case 1:
+			return new byte[][] {
+				text.getBytes("UTF-16"),
+				text.length() == 0 ? new byte[0]
+					: concat(new byte[] { (byte) 0xff, (byte) 0xfe }, text.getBytes("UTF-16LE"))
+			};
+		case 2:
+			return new byte[][] { text.getBytes("UTF-16BE") };
+		default:
+			byte[] utf8 = text.getBytes("UTF-8");
+			if (utf8.length % 2 != 0) {
+				utf8 = concat(utf8, new byte[] { ' ' });
+			}
+			return new byte[][] { utf8 };
+		}
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.write(part, 0, part.length);
+		}
+		return out.toByteArray();
+	}
+
+	private static String hex(byte[] in) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : in) {
+			sb.append(String.format("%02x", b & 0xff));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,150 @@
+package net.zhoufeng;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Detects the charset of short titles whose charset is known, of text
+ * that reads the same in every candidate and of byte sequences no
+ * candidate can hold.
+ */
+public class EncodingDetectorTest {
+
+	private final EncodingDetector detector =
+		new EncodingDetector(EncodingDetector.DEFAULT_CANDIDATES);
+
+	@Test
+	public void detectsGbk() throws Exception {
+		assertDetected("GBK", "\u5468\u6770\u4f26");
+		assertDetected("GBK", "\u6211\u7684\u5730\u76d8 - \u5468\u6770\u4f26");
+	}
+
+	@Test
+	public void detectsBig5() throws Exception {
+		assertDetected("Big5", "\u5468\u6770\u502b");
+		assertDetected("Big5", "\u6771\u98a8\u7834");
+	}
+
+	@Test
+	public void detectsShiftJis() throws Exception {
+		assertDetected("Shift_JIS", "\u5b87\u591a\u7530\u30d2\u30ab\u30eb");
+		assertDetected("Shift_JIS", "\u6d5c\u5d0e\u3042\u3086\u307f");
+	}
+
+	@Test
+	public void detectsCp1251() throws Exception {
+		assertDetected("windows-1251", "\u0413\u0440\u0443\u043f\u043f\u0430 \u043a\u0440\u043e\u0432\u0438");
+		assertDetected("windows-1251", "\u0412\u0438\u043a\u0442\u043e\u0440 \u0426\u043e\u0439");
+	}
+
+	@Test
+	public void detectsSeveralTextsTogether() throws Exception {
+		// artist, title and album of one tag
+		EncodingDetector.Detection d = detector.detect(texts("GBK",
+				"\u5468\u6770\u4f26", "\u6211\u7684\u5730\u76d8", "\u4e03\u91cc\u9999"));
+		assertEquals("GBK", d.charset);
+	}
+
+	@Test
+	public void givesAsciiToFirstCandidate() throws Exception {
+		List<byte[]> texts = texts("US-ASCII", "Hotel California", "Eagles");
+		assertTrue(EncodingDetector.isAscii(texts));
+		EncodingDetector.Detection d = detector.detect(texts);
+		assertEquals("GBK", d.charset);
+		assertConfidence(d);
+
+		d = new EncodingDetector(new String[] { "windows-1251", "GBK" }).detect(texts);
+		assertEquals("windows-1251", d.charset);
+	}
+
+	@Test
+	public void rulesOutInvalidSequences() {
+		// lead byte without trail byte
+		List<byte[]> texts = bytes(0x41, 0xb0, 0xa1, 0x81);
+		assertFalse(detector.isValid("GBK", texts));
+		assertFalse(detector.isValid("Big5", texts));
+		assertFalse(detector.isValid("Shift_JIS", texts));
+		assertTrue(detector.isValid("windows-1251", texts));
+
+		EncodingDetector.Detection d = detector.detect(texts);
+		assertFalse(d.charset.equals("GBK"));
+		assertFalse(d.charset.equals("Big5"));
+		assertFalse(d.charset.equals("Shift_JIS"));
+		assertConfidence(d);
+	}
+
+	@Test
+	public void givesFirstCandidateWhenNoneIsValid() {
+		EncodingDetector double_byte = new EncodingDetector(new String[] { "GBK", "Big5" });
+		EncodingDetector.Detection d = double_byte.detect(bytes(0x41, 0x81));
+		assertEquals("GBK", d.charset);
+		assertEquals(0, d.confidence, 0);
+	}
+
+	@Test
+	public void validatesCharsetsThatAreNoCandidates() throws Exception {
+		assertTrue(detector.isValid("UTF-8", texts("UTF-8", "\u5468\u6770\u4f26")));
+		assertFalse(detector.isValid("UTF-8", bytes(0xd6, 0xdc)));
+	}
+
+	@Test
+	public void validatesTextsOfAnyLength() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++)
+			sb.append("\u5468\u6770\u4f26 ");
+		// short text first, so that the long one needs a larger buffer
+		List<byte[]> texts = texts("GBK", "\u5468", sb.toString());
+		assertTrue(detector.isValid("GBK", texts));
+		assertEquals("GBK", detector.detect(texts).charset);
+		assertTrue(detector.isValid("GBK", texts("GBK", "\u6770")));
+	}
+
+	@Test
+	public void skipsUnsupportedCandidates() throws Exception {
+		EncodingDetector d = new EncodingDetector(new String[] { "no-such-charset", " Big5 " });
+		assertEquals("Big5", d.first());
+		assertEquals("Big5", d.candidates());
+		assertEquals("Big5", d.detect(texts("Big5", "\u5468\u6770\u502b")).charset);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void refusesNoSupportedCandidate() {
+		new EncodingDetector(new String[] { "no-such-charset" });
+	}
+
+	/********** Private methods **********/
+
+	private void assertDetected(String charset, String text) throws Exception {
+		EncodingDetector.Detection d = detector.detect(texts(charset, text));
+		assertEquals(text, charset, d.charset);
+		assertConfidence(d);
+		assertTrue(detector.isValid(charset, texts(charset, text)));
+	}
+
+	private static void assertConfidence(EncodingDetector.Detection d) {
+		assertTrue(d.toString(), d.confidence > 0 && d.confidence <= 1);
+	}
+
+	private static List<byte[]> texts(String charset, String... texts)
+		throws UnsupportedEncodingException {
+		List<byte[]> result = new ArrayList<byte[]>();
+		for (String text : texts)
+			result.add(text.getBytes(charset));
+		return result;
+	}
+
+	private static List<byte[]> bytes(int... values) {
+		byte[] text = new byte[values.length];
+		for (int i = 0; i < values.length; i++)
+			text[i] = (byte) values[i];
+		return Arrays.asList(text);
+	}
+}
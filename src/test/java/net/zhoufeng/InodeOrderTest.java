@@ -0,0 +1,110 @@
+package net.zhoufeng;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Sorts windows of files by the device and inode numbers of their file
+ * keys, read as unsigned, and keeps files without inode numbers in the
+ * order they were submitted.
+ */
+public class InodeOrderTest {
+
+	@Test
+	public void sortsByDeviceAndInode() {
+		InodeOrder order = new InodeOrder(4);
+		assertFalse(order.add(new File("c"), attrs("(dev=803,ino=30)")));
+		assertFalse(order.add(new File("a"), attrs("(dev=803,ino=10)")));
+		assertFalse(order.add(new File("d"), attrs("(dev=fd00,ino=5)")));
+		assertTrue(order.add(new File("b"), attrs("(dev=803,ino=20)")));
+		assertNames(order.drain(), "a", "b", "c", "d");
+		assertEquals(0, order.drain().size());
+	}
+
+	@Test
+	public void readsNumbersAsUnsigned() {
+		InodeOrder order = new InodeOrder(10);
+		// inodes above 2^63 are printed negative, devices in full
+		order.add(new File("c"), attrs("(dev=ffffffffffffff00,ino=1)"));
+		order.add(new File("b"), attrs("(dev=803,ino=-2)"));
+		order.add(new File("a"), attrs("(dev=803,ino=9223372036854775807)"));
+		assertNames(order.drain(), "a", "b", "c");
+		assertTrue(order.toString().startsWith("inode order"));
+	}
+
+	@Test
+	public void keepsFilesWithoutInodeInSubmittedOrder() {
+		InodeOrder order = new InodeOrder(10);
+		order.add(new File("z"), attrs(null));
+		order.add(new File("b"), attrs("(dev=803,ino=20)"));
+		order.add(new File("y"), null);
+		order.add(new File("a"), attrs("(dev=803,ino=10)"));
+		order.add(new File("x"), attrs("other"));
+		assertNames(order.drain(), "a", "b", "z", "y", "x");
+		assertEquals("walk order, no inode numbers", order.toString());
+	}
+
+	/********** Private methods **********/
+
+	private static void assertNames(List<InodeOrder.Entry> entries, String... names) {
+		assertEquals(names.length, entries.size());
+		for (int i = 0; i < names.length; i++) {
+			assertEquals(names[i], entries.get(i).file.getName());
+		}
+	}
+
+	/**
+	 * @return Attributes whose file key prints as <code>key</code>
+	 */
+	private static BasicFileAttributes attrs(final String key) {
+		return new BasicFileAttributes() {
+			public FileTime lastModifiedTime() {
+				return FileTime.fromMillis(0);
+			}
+
+			public FileTime lastAccessTime() {
+				return FileTime.fromMillis(0);
+			}
+
+			public FileTime creationTime() {
+				return FileTime.fromMillis(0);
+			}
+
+			public boolean isRegularFile() {
+				return true;
+			}
+
+			public boolean isDirectory() {
+				return false;
+			}
+
+			public boolean isSymbolicLink() {
+				return false;
+			}
+
+			public boolean isOther() {
+				return false;
+			}
+
+			public long size() {
+				return 0;
+			}
+
+			public Object fileKey() {
+				return key == null ? null : new Object() {
+					public String toString() {
+						return key;
+					}
+				};
+			}
+		};
+	}
+}
@@ -0,0 +1,151 @@
+package net.zhoufeng;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Claims shards from several processes sharing one lease directory,
+ * reclaims leases that expired and checks that a lease renewed or taken
+ * over by another process in the meantime is left alone.
+ */
+public class LeaseDirectoryTest {
+
+	private static final long TTL = 60000;
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("LeaseDirectoryTest").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		for (int i = 0; files != null && i < files.length; i++) {
+			files[i].delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void claimsEveryShardOnce() throws IOException {
+		LeaseDirectory a = new LeaseDirectory(dir, 2, TTL);
+		LeaseDirectory b = new LeaseDirectory(dir, 2, TTL);
+		LeaseDirectory.Lease first = a.claim();
+		LeaseDirectory.Lease second = b.claim();
+		assertNotNull(first);
+		assertNotNull(second);
+		assertEquals(1, first.shard.index + second.shard.index);
+		assertNull(new LeaseDirectory(dir, 2, TTL).claim());
+
+		first.done();
+		assertFalse(a.isDone());
+		second.release();
+		LeaseDirectory.Lease again = a.claim();
+		assertEquals(second.shard.index, again.shard.index);
+		again.done();
+		assertTrue(a.isDone());
+		assertNull(b.claim());
+		assertEquals(2, dir.listFiles().length);
+	}
+
+	@Test
+	public void reclaimsExpiredLease() throws IOException {
+		LeaseDirectory a = new LeaseDirectory(dir, 1, TTL);
+		LeaseDirectory.Lease crashed = a.claim();
+		File lease = lease(0, 1);
+		assertTrue(lease.setLastModified(System.currentTimeMillis() - TTL - 1000));
+
+		LeaseDirectory b = new LeaseDirectory(dir, 1, TTL);
+		LeaseDirectory.Lease taken = b.claim();
+		assertNotNull(taken);
+		assertEquals(1, dir.listFiles().length);
+
+		// the first owner finds out and leaves the lease to the new one
+		try {
+			crashed.done();
+			fail("lease taken over not reported");
+		} catch (IOException expected) {
+		}
+		crashed.release();
+		assertTrue(lease.exists());
+		assertFalse(a.isDone());
+		taken.done();
+		assertTrue(a.isDone());
+	}
+
+	@Test
+	public void keepsLeaseThatIsNotExpired() throws IOException {
+		LeaseDirectory.Lease held = new LeaseDirectory(dir, 1, TTL).claim();
+		assertNull(new LeaseDirectory(dir, 1, TTL).claim());
+		held.done();
+	}
+
+	@Test
+	public void keepsLeaseRenewedSinceItExpired() throws IOException {
+		LeaseDirectory a = new LeaseDirectory(dir, 1, TTL);
+		LeaseDirectory.Lease held = a.claim();
+		File lease = lease(0, 1);
+		long expired = System.currentTimeMillis() - TTL - 1000;
+		String holder = content(lease);
+
+		// seen expired by another process, renewed before it renames it
+		LeaseDirectory b = new LeaseDirectory(dir, 1, TTL);
+		assertFalse(b.reclaim(lease, expired, holder));
+		assertEquals(holder, content(lease));
+		assertEquals(1, dir.listFiles().length);
+		held.done();
+	}
+
+	@Test
+	public void keepsLeaseTakenOverSinceItExpired() throws IOException {
+		LeaseDirectory a = new LeaseDirectory(dir, 1, TTL);
+		LeaseDirectory.Lease crashed = a.claim();
+		File lease = lease(0, 1);
+		assertTrue(lease.setLastModified(System.currentTimeMillis() - TTL - 1000));
+		long expired = lease.lastModified();
+		String holder = content(lease);
+
+		// seen expired by two processes, reclaimed by the first one
+		LeaseDirectory b = new LeaseDirectory(dir, 1, TTL);
+		LeaseDirectory c = new LeaseDirectory(dir, 1, TTL);
+		LeaseDirectory.Lease taken = b.claim();
+		String owner = content(lease);
+		assertFalse(owner.equals(holder));
+
+		// the second one must not take it from the first
+		assertFalse(c.reclaim(lease, expired, holder));
+		assertEquals(owner, content(lease));
+		assertEquals(1, dir.listFiles().length);
+		assertNull(c.claim());
+
+		crashed.release();
+		taken.done();
+		assertTrue(a.isDone());
+	}
+
+	/********** Private methods **********/
+
+	private File lease(int shard, int count) {
+		File lease = new File(dir, "shard-"+shard+"-of-"+count+".lease");
+		assertTrue(lease.exists());
+		return lease;
+	}
+
+	private static String content(File f) throws IOException {
+		return new String(Files.readAllBytes(f.toPath()), "UTF-8").trim();
+	}
+}